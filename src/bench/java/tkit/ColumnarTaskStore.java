@@ -0,0 +1,127 @@
+package tkit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Append-only struct-of-arrays task layout, used by {@link FootprintReport} to measure how much heap a columnar
+ * backend for {@link TaskList} would save. It is a measurement, not a backend: nothing in the app selects it.
+ * Responsibilities:
+ *   Hold each task as one slot across parallel primitive columns instead of as an object graph
+ *   Materialize {@link Task} objects only on request
+ * Columns:
+ *   flags      byte per task; bits 0-1 type ordinal, bit 2 done
+ *   first      long per task; deadline due or event start, in epoch minutes (UTC wall clock)
+ *   second     long per task; event end in epoch minutes
+ *   descStart  int per task; offset of the description in the arena
+ *   descLength int per task; UTF-8 byte length of the description
+ *   arena      UTF-8 bytes of every description, appended in insertion order
+ * Dates are kept to the minute, which is all the input formats can express.
+ */
+final class ColumnarTaskStore {
+
+    private static final int TYPE_MASK = 0b011;
+    private static final int DONE_BIT = 0b100;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private long[] first = new long[INITIAL_CAPACITY];
+    private long[] second = new long[INITIAL_CAPACITY];
+    private int[] descStart = new int[INITIAL_CAPACITY];
+    private int[] descLength = new int[INITIAL_CAPACITY];
+    private byte[] arena = new byte[INITIAL_CAPACITY * 16];
+    private int arenaUsed;
+    private int size;
+
+    /** Returns the number of tasks. */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a task by copying its fields into the columns.
+     *
+     * @param t task to copy; the store keeps no reference to it
+     */
+    void add(Task t) {
+        assert t != null && t.type != null && t.status != null : "add(): fields must be non-null";
+        ensureCapacity(size + 1);
+        byte[] desc = t.description.getBytes(StandardCharsets.UTF_8);
+        ensureArena(arenaUsed + desc.length);
+        System.arraycopy(desc, 0, arena, arenaUsed, desc.length);
+        descStart[size] = arenaUsed;
+        descLength[size] = desc.length;
+        arenaUsed += desc.length;
+
+        flags[size] = (byte) (t.type.ordinal() | (t.status == Status.DONE ? DONE_BIT : 0));
+        if (t instanceof Deadline) {
+            first[size] = toEpochMinute(((Deadline) t).getDueDate());
+        } else if (t instanceof Event) {
+            first[size] = toEpochMinute(((Event) t).getFromDate());
+            second[size] = toEpochMinute(((Event) t).getToDate());
+        }
+        size++;
+    }
+
+    /**
+     * Builds a {@link Task} for the slot at a position.
+     *
+     * @param idx zero-based position
+     * @return a fresh task holding the slot's values
+     * @throws IndexOutOfBoundsException if {@code idx} is invalid
+     */
+    Task get(int idx) {
+        checkIndex(idx);
+        String description = new String(arena, descStart[idx], descLength[idx], StandardCharsets.UTF_8);
+        Task t;
+        switch (flags[idx] & TYPE_MASK) {
+        case 0:
+            t = new Todo(description);
+            break;
+        case 1:
+            t = new Deadline(description, fromEpochMinute(first[idx]));
+            break;
+        default:
+            t = new Event(description, fromEpochMinute(first[idx]), fromEpochMinute(second[idx]));
+            break;
+        }
+        if ((flags[idx] & DONE_BIT) != 0) {
+            t.markAsDone();
+        }
+        return t;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= flags.length) {
+            return;
+        }
+        int capacity = Math.max(needed, flags.length + (flags.length >> 1));
+        flags = Arrays.copyOf(flags, capacity);
+        first = Arrays.copyOf(first, capacity);
+        second = Arrays.copyOf(second, capacity);
+        descStart = Arrays.copyOf(descStart, capacity);
+        descLength = Arrays.copyOf(descLength, capacity);
+    }
+
+    private void ensureArena(int needed) {
+        if (needed > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(needed, arena.length + (arena.length >> 1)));
+        }
+    }
+
+    private void checkIndex(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+    }
+
+    private static long toEpochMinute(LocalDateTime ldt) {
+        return Math.floorDiv(ldt.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+}
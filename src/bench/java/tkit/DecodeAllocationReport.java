@@ -0,0 +1,155 @@
+package tkit;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the bytes allocated decoding N storage lines with {@link Storage#decodeLine(String)} versus the original
+ * decoder, which split a line into fields first and unescaped each field afterwards.
+ * Allocation is read from the HotSpot per-thread counter after a warm-up, so figures depend on the JIT and
+ * escape analysis; this is a measurement, not a test, and it is kept out of the unit suite for that reason.
+ *
+ * Usage
+ * ./gradlew decodeAllocationReport     or     java -cp out tkit.DecodeAllocationReport [COUNT]
+ */
+public final class DecodeAllocationReport {
+
+    private static final int DEFAULT_COUNT = 2000;
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private DecodeAllocationReport() { }
+
+    /**
+     * Runs the comparison and prints one line per decoder.
+     *
+     * @param args optional number of line pairs
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COUNT;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("This JVM does not report per-thread allocation.");
+            return;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+
+        Storage storage = new Storage(Path.of("data", "Tkit.txt"), 0);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("E | 0 | project meeting " + i + " | 2019-12-02T14:00 | 2019-12-02T16:00");
+            lines.add("T | 1 | read \\| book " + i);
+        }
+        for (int warm = 0; warm < WARM_UP_ROUNDS; warm++) {
+            lines.forEach(storage::decodeLine);
+            lines.forEach(DecodeAllocationReport::legacyDecodeLine);
+        }
+
+        long fused = allocatedBytes(bean, () -> lines.forEach(storage::decodeLine));
+        long legacy = allocatedBytes(bean, () -> lines.forEach(DecodeAllocationReport::legacyDecodeLine));
+        print("single pass", lines.size(), fused);
+        print("split first", lines.size(), legacy);
+        System.out.printf("single pass / split first = %.2f%n", (double) fused / Math.max(1, legacy));
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean bean, Runnable work) {
+        long id = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(id);
+        work.run();
+        return bean.getThreadAllocatedBytes(id) - before;
+    }
+
+    private static void print(String decoder, int lines, long bytes) {
+        System.out.printf("%-12s %,d lines: %,d bytes (%.1f bytes/line)%n",
+                decoder, lines, bytes, (double) bytes / Math.max(1, lines));
+    }
+
+    /** The split-then-unescape decoder that {@link Storage#decodeLine(String)} replaced. */
+    static Task legacyDecodeLine(String line) {
+        List<String> rawFields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean isEscaping = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isEscaping) {
+                current.append(c);
+                isEscaping = false;
+            } else if (c == '\\') {
+                isEscaping = true;
+            } else if (c == '|') {
+                rawFields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        rawFields.add(current.toString());
+        if (rawFields.size() < 3) {
+            return null;
+        }
+        String type = rawFields.get(0).trim();
+        String done = rawFields.get(1).trim();
+        for (int i = 0; i < rawFields.size(); i++) {
+            rawFields.set(i, legacyUnescape(rawFields.get(i).trim()));
+        }
+        String description = rawFields.get(2);
+        Task task;
+        switch (type) {
+        case "T":
+            task = new Todo(description);
+            break;
+        case "D": {
+            LocalDateTime by = rawFields.size() < 4 ? null : DateTimeUtil.tryParseStorageOrInput(rawFields.get(3));
+            if (by == null) {
+                return null;
+            }
+            task = new Deadline(description, by);
+            break;
+        }
+        case "E": {
+            if (rawFields.size() < 5) {
+                return null;
+            }
+            LocalDateTime from = DateTimeUtil.tryParseStorageOrInput(rawFields.get(3));
+            LocalDateTime to = DateTimeUtil.tryParseStorageOrInput(rawFields.get(4));
+            if (from == null || to == null) {
+                return null;
+            }
+            task = new Event(description, from, to);
+            break;
+        }
+        default:
+            return null;
+        }
+        if ("1".equals(done)) {
+            task.markAsDone();
+        } else if (!"0".equals(done)) {
+            return null;
+        }
+        return task;
+    }
+
+    private static String legacyUnescape(String s) {
+        StringBuilder out = new StringBuilder();
+        boolean isEscaping = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (isEscaping) {
+                out.append(c);
+                isEscaping = false;
+            } else if (c == '\\') {
+                isEscaping = true;
+            } else {
+                out.append(c);
+            }
+        }
+        if (isEscaping) {
+            out.append('\\');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package tkit;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the heap cost of holding N tasks as objects versus in a {@link ColumnarTaskStore}.
+ * The tasks are an even mix of todos, deadlines and events with distinct descriptions.
+ * Heap use is sampled after repeated garbage collection, so figures are approximate. Every columnar slot is
+ * read back and compared with its source task before the figures are trusted.
+ *
+ * Usage
+ * ./gradlew footprintReport     or     java -cp out tkit.FootprintReport [COUNT]
+ * (COUNT defaults to 1000000; allow a large -Xmx)
+ */
+public final class FootprintReport {
+
+    private static final int DEFAULT_COUNT = 1_000_000;
+
+    private FootprintReport() { }
+
+    /**
+     * Runs the comparison and prints one line per model.
+     *
+     * @param args optional task count
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COUNT;
+
+        long base = usedHeap();
+        List<Task> objects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            objects.add(sample(i));
+        }
+        long objectBytes = usedHeap() - base;
+        print("object model", count, objectBytes, objects.size());
+        objects = null;
+
+        base = usedHeap();
+        ColumnarTaskStore columns = new ColumnarTaskStore();
+        for (int i = 0; i < count; i++) {
+            columns.add(sample(i));
+        }
+        long columnBytes = usedHeap() - base;
+        for (int i = 0; i < count; i++) {
+            if (!columns.get(i).toString().equals(sample(i).toString())) {
+                throw new IllegalStateException("Columnar slot " + i + " does not read back as " + sample(i));
+            }
+        }
+        print("columnar", count, columnBytes, columns.size());
+        System.out.printf("columnar / object = %.2f%n", (double) columnBytes / Math.max(1, objectBytes));
+    }
+
+    /** Builds the i-th sample task; every third is a todo, deadline or event. */
+    static Task sample(int i) {
+        LocalDateTime when = LocalDateTime.of(2024, 1, 1, 9, 0).plusMinutes(i * 17L);
+        Task t;
+        switch (i % 3) {
+        case 0:
+            t = new Todo("read chapter " + i);
+            break;
+        case 1:
+            t = new Deadline("submit report " + i, when);
+            break;
+        default:
+            t = new Event("team sync " + i, when, when.plusHours(1));
+            break;
+        }
+        if (i % 4 == 0) {
+            t.markAsDone();
+        }
+        return t;
+    }
+
+    private static void print(String model, int count, long bytes, int size) {
+        assert size == count;
+        System.out.printf("%-13s %,d tasks: %,d bytes (%.1f bytes/task)%n",
+                model, count, bytes, (double) bytes / Math.max(1, count));
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
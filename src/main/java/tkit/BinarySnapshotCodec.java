@@ -0,0 +1,242 @@
+package tkit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Compact binary snapshot format.
+ * Layout (version 1):
+ *   MAGIC      4 bytes {@code 'T' 'K' 'B' 0x00}
+ *   VERSION    1 byte
+ *   GENERATION unsigned varint
+ *   COUNT      unsigned varint, number of records that follow
+ *   RECORD*    FLAGS, DESCRIPTION, DATES...
+ * Record fields:
+ *   FLAGS        1 byte; bits 0-1 type (0 todo, 1 deadline, 2 event), bit 2 done
+ *   DESCRIPTION  unsigned varint byte length, then UTF-8 bytes
+ *   DATES        deadline: due as signed varint epoch minutes (UTC wall clock);
+ *                event: start as signed varint epoch minutes, then end - start as unsigned varint minutes
+ * Dates are stored with minute precision, which is all the input formats can express.
+ * Decoding stops at the first unreadable record; it and every record after it count as corrupted.
+ */
+final class BinarySnapshotCodec {
+
+    /** Leading bytes that identify a binary snapshot. */
+    static final byte[] MAGIC = {'T', 'K', 'B', 0};
+
+    /** Current layout version. */
+    static final int VERSION = 1;
+
+    private static final int TYPE_MASK = 0b011;
+    private static final int DONE_BIT = 0b100;
+
+    private BinarySnapshotCodec() { }
+
+    /**
+     * True if {@code data} starts with the binary magic.
+     *
+     * @param data file contents or a prefix of them
+     * @return whether the data is a binary snapshot
+     */
+    static boolean isBinary(byte[] data) {
+        if (data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a full snapshot.
+     *
+     * @param out destination; not closed
+     * @param tasks tasks to write
+     * @param generation snapshot generation recorded in the header
+     * @throws IOException if the write fails
+     */
+    static void write(OutputStream out, List<Task> tasks, long generation) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(16 + tasks.size() * 24);
+        buf.write(MAGIC);
+        buf.write(VERSION);
+        writeVarint(buf, generation);
+        writeVarint(buf, tasks.size());
+        for (Task t : tasks) {
+            writeRecord(buf, t);
+        }
+        buf.writeTo(out);
+    }
+
+    private static void writeRecord(ByteArrayOutputStream buf, Task t) {
+        assert t != null && t.type != null && t.status != null : "writeRecord(): fields must be non-null";
+        int flags = t.type.ordinal() | (t.status == Status.DONE ? DONE_BIT : 0);
+        buf.write(flags);
+        byte[] desc = t.description.getBytes(StandardCharsets.UTF_8);
+        writeVarint(buf, desc.length);
+        buf.write(desc, 0, desc.length);
+        if (t instanceof Deadline) {
+            writeVarint(buf, zigZag(toEpochMinute(((Deadline) t).getDueDate())));
+        } else if (t instanceof Event) {
+            long from = toEpochMinute(((Event) t).getFromDate());
+            long to = toEpochMinute(((Event) t).getToDate());
+            writeVarint(buf, zigZag(from));
+            writeVarint(buf, to - from);
+        }
+    }
+
+    /**
+     * Reads the generation from a binary snapshot header.
+     *
+     * @param data file contents starting with the magic
+     * @return snapshot generation, or {@code 0} if the header is unreadable
+     */
+    static long readGeneration(byte[] data) {
+        Cursor c = new Cursor(data, MAGIC.length);
+        try {
+            if (c.readByte() != VERSION) {
+                return 0;
+            }
+            return c.readVarint();
+        } catch (IndexOutOfBoundsException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Decodes every record of a binary snapshot into {@code into}, in order.
+     *
+     * @param data file contents starting with the magic
+     * @param into destination list
+     * @return number of records that could not be decoded
+     */
+    static int read(byte[] data, List<Task> into) {
+        assert isBinary(data) : "read(): not a binary snapshot";
+        Cursor c = new Cursor(data, MAGIC.length);
+        long count;
+        try {
+            if (c.readByte() != VERSION) {
+                return 1;
+            }
+            c.readVarint();
+            count = c.readVarint();
+        } catch (IndexOutOfBoundsException ex) {
+            return 1;
+        }
+
+        for (long i = 0; i < count; i++) {
+            Task t;
+            try {
+                t = readRecord(c);
+            } catch (RuntimeException ex) {
+                t = null;
+            }
+            if (t == null) {
+                return (int) Math.min(Integer.MAX_VALUE, count - i);
+            }
+            into.add(t);
+        }
+        return 0;
+    }
+
+    private static Task readRecord(Cursor c) {
+        int flags = c.readByte();
+        int len = (int) c.readVarint();
+        if (len <= 0 || len > c.remaining()) {
+            return null;
+        }
+        String description = new String(c.data, c.pos, len, StandardCharsets.UTF_8);
+        c.pos += len;
+        if (description.isBlank()) {
+            return null;
+        }
+
+        Task task;
+        switch (flags & TYPE_MASK) {
+        case 0:
+            task = new Todo(description);
+            break;
+        case 1:
+            task = new Deadline(description, fromEpochMinute(unZigZag(c.readVarint())));
+            break;
+        case 2: {
+            long from = unZigZag(c.readVarint());
+            long span = c.readVarint();
+            task = new Event(description, fromEpochMinute(from), fromEpochMinute(from + span));
+            break;
+        }
+        default:
+            return null;
+        }
+        if ((flags & DONE_BIT) != 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static long toEpochMinute(LocalDateTime ldt) {
+        return Math.floorDiv(ldt.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream buf, long v) {
+        assert v >= 0 : "writeVarint(): value must be non-negative";
+        while ((v & ~0x7FL) != 0) {
+            buf.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.write((int) v);
+    }
+
+    /** Read position over a byte array; out-of-range reads throw {@link IndexOutOfBoundsException}. */
+    private static final class Cursor {
+        final byte[] data;
+        int pos;
+
+        Cursor(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        int remaining() {
+            return data.length - pos;
+        }
+
+        int readByte() {
+            if (pos >= data.length) {
+                throw new IndexOutOfBoundsException("readByte(): end of data");
+            }
+            return data[pos++] & 0xFF;
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IndexOutOfBoundsException("readVarint(): varint too long");
+        }
+    }
+}
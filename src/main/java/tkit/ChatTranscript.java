@@ -0,0 +1,68 @@
+package tkit;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.ListView;
+
+/**
+ * Chat history shown in a virtualized {@link ListView}.
+ * Responsibilities:
+ *   Hold messages as plain data; the list view builds cells only for the rows on screen and reuses them
+ *   while scrolling, so layout cost does not grow with the length of the conversation
+ *   Keep at most {@link #MAX_MESSAGES} messages, dropping the oldest first
+ *   Keep the newest message in view
+ * Must be used on the JavaFX application thread.
+ */
+final class ChatTranscript {
+
+    /** Most messages retained; older ones are discarded. */
+    static final int MAX_MESSAGES = 500;
+
+    /** One line of the conversation. */
+    static final class Message {
+        final String text;
+        final boolean isBot;
+
+        private Message(String text, boolean isBot) {
+            assert text != null : "Message text must not be null";
+            this.text = text;
+            this.isBot = isBot;
+        }
+
+        static Message bot(String text) {
+            return new Message(text, true);
+        }
+
+        static Message user(String text) {
+            return new Message(text, false);
+        }
+    }
+
+    private final ListView<Message> view;
+    private final ObservableList<Message> messages = FXCollections.observableArrayList();
+
+    /**
+     * Binds a transcript to a list view, replacing its items and cell factory.
+     *
+     * @param view list view to render into
+     */
+    ChatTranscript(ListView<Message> view) {
+        assert view != null : "ChatTranscript(): view must not be null";
+        this.view = view;
+        view.setItems(messages);
+        view.setCellFactory(lv -> new DialogBox());
+    }
+
+    /**
+     * Appends a message, trims the history to {@link #MAX_MESSAGES}, and scrolls to it.
+     *
+     * @param message message to show
+     */
+    void add(Message message) {
+        messages.add(message);
+        if (messages.size() > MAX_MESSAGES) {
+            messages.remove(0, messages.size() - MAX_MESSAGES);
+        }
+        view.scrollTo(messages.size() - 1);
+    }
+}
@@ -0,0 +1,188 @@
+package tkit;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Reads large snapshot files by decoding newline-aligned chunks in parallel.
+ * Responsibilities:
+ *   Split the file into chunks that each end on a line break
+ *   Read and decode every chunk on a {@link ForkJoinPool}, line by line, exactly as the serial reader would
+ *   Join the chunks back in file order and sum their corrupted-line counts
+ * Chunks are read into heap buffers with positional reads rather than memory-mapped: a mapping cannot be
+ * released on demand and, on Windows, would stop the next save from replacing the file.
+ * Header and blank lines are skipped; a line is corrupted if the decoder returns {@code null} or throws.
+ */
+final class ChunkedSnapshotReader {
+
+    /** Smallest chunk handed to a worker; below this the split overhead outweighs the gain. */
+    static final int DEFAULT_MIN_CHUNK_BYTES = 1 << 20;
+
+    /** Bytes read at a time while looking for the line break that ends a chunk. */
+    private static final int PROBE_BYTES = 8192;
+
+    /** Line prefix marking header/comment lines. */
+    private static final String HEADER_PREFIX = "#";
+
+    private ChunkedSnapshotReader() { }
+
+    /** Tasks decoded from one chunk plus the number of lines that failed. */
+    private static final class ChunkResult {
+        final List<Task> tasks = new ArrayList<>();
+        int corruptedCount;
+    }
+
+    /**
+     * Reads every task line of {@code file} into {@code into}, in file order.
+     *
+     * @param file snapshot file; must be smaller than 2 GiB
+     * @param decoder decodes one trimmed line, returning {@code null} if it is corrupted
+     * @param into destination list
+     * @param minChunkBytes smallest chunk size in bytes
+     * @return number of corrupted lines
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    static int read(Path file, Function<String, Task> decoder, List<Task> into, int minChunkBytes)
+            throws IOException {
+        assert minChunkBytes > 0 : "read(): minChunkBytes must be positive";
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Data file too large to read in chunks: " + size + " bytes");
+            }
+
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            List<long[]> bounds = splitOnNewlines(channel, size, minChunkBytes, pool.getParallelism() * 4);
+            List<RecursiveTask<ChunkResult>> jobs = new ArrayList<>(bounds.size());
+            for (long[] b : bounds) {
+                jobs.add(new RecursiveTask<>() {
+                    @Override
+                    protected ChunkResult compute() {
+                        try {
+                            return decodeChunk(readRange(channel, b[0], (int) (b[1] - b[0])), decoder);
+                        } catch (IOException io) {
+                            throw new UncheckedIOException(io);
+                        }
+                    }
+                });
+            }
+
+            try {
+                pool.invoke(new RecursiveTask<Void>() {
+                    @Override
+                    protected Void compute() {
+                        ForkJoinTask.invokeAll(jobs);
+                        return null;
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            int corruptedCount = 0;
+            for (RecursiveTask<ChunkResult> job : jobs) {
+                ChunkResult r = job.join();
+                into.addAll(r.tasks);
+                corruptedCount += r.corruptedCount;
+            }
+            return corruptedCount;
+        }
+    }
+
+    /**
+     * Cuts the file into at most {@code maxChunks} ranges, each at least {@code minChunkBytes} long
+     * (except the last) and each ending just after a {@code '\n'} or at the end of the file.
+     *
+     * @return list of {@code [start, end)} byte ranges covering the whole file
+     */
+    private static List<long[]> splitOnNewlines(FileChannel channel, long size, int minChunkBytes, int maxChunks)
+            throws IOException {
+        long target = Math.max(minChunkBytes, size / Math.max(1, maxChunks) + 1);
+        List<long[]> bounds = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + target, size);
+            if (end < size) {
+                end = afterNextNewline(channel, end - 1, size);
+            }
+            bounds.add(new long[] {start, end});
+            start = end;
+        }
+        return bounds;
+    }
+
+    /** Returns the position just after the first {@code '\n'} at or after {@code from}, or {@code size}. */
+    private static long afterNextNewline(FileChannel channel, long from, long size) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            ByteBuffer probe = readRange(channel, pos, (int) Math.min(PROBE_BYTES, size - pos));
+            for (int i = 0; i < probe.limit(); i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += probe.limit();
+        }
+        return size;
+    }
+
+    /** Reads {@code length} bytes starting at {@code pos} into a new heap buffer, ready to be read. */
+    private static ByteBuffer readRange(FileChannel channel, long pos, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, pos + buf.position()) < 0) {
+                throw new EOFException("Data file shrank while it was being read");
+            }
+        }
+        return buf.flip();
+    }
+
+    /** Decodes one chunk; lines end at {@code \n}, {@code \r} or {@code \r\n}, as with {@code readLine}. */
+    private static ChunkResult decodeChunk(ByteBuffer slice, Function<String, Task> decoder) throws IOException {
+        String text = StandardCharsets.UTF_8.newDecoder().decode(slice).toString();
+        ChunkResult result = new ChunkResult();
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            int end = i;
+            while (end < n && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+                end++;
+            }
+            decodeInto(text.substring(i, end), decoder, result);
+            if (end < n && text.charAt(end) == '\r' && end + 1 < n && text.charAt(end + 1) == '\n') {
+                end++;
+            }
+            i = end + 1;
+        }
+        return result;
+    }
+
+    private static void decodeInto(String line, Function<String, Task> decoder, ChunkResult result) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith(HEADER_PREFIX)) {
+            return;
+        }
+        try {
+            Task t = decoder.apply(trimmed);
+            if (t != null) {
+                result.tasks.add(t);
+            } else {
+                result.corruptedCount++;
+            }
+        } catch (Exception ex) {
+            result.corruptedCount++;
+        }
+    }
+}
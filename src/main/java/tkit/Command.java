@@ -12,7 +12,16 @@ enum Command {
     UNMARK("unmark"),
     DELETE("delete"),
     ON("on"),
-    FIND("find");
+    FIND("find"),
+    UPCOMING("upcoming"),
+    OVERDUE("overdue"),
+    BETWEEN("between"),
+    UNDO("undo"),
+    REDO("redo"),
+    BEGIN("begin"),
+    COMMIT("commit"),
+    ROLLBACK("rollback"),
+    USE("use");
 
     private final String keyword;
 
@@ -26,6 +35,26 @@ enum Command {
         return keyword;
     }
 
+    /**
+     * True if the command only reads the list, so it may safely run alongside other read-only commands.
+     *
+     * @return whether the command leaves the list and the undo history untouched
+     */
+    public boolean isReadOnly() {
+        switch (this) {
+        case LIST:
+        case ON:
+        case FIND:
+        case UPCOMING:
+        case OVERDUE:
+        case BETWEEN:
+        case UNKNOWN:
+            return true;
+        default:
+            return false;
+        }
+    }
+
     /**
      * Maps the first token of an input line to a {@code Command}.
      *
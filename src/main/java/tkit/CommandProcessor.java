@@ -1,17 +1,50 @@
 package tkit;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Flow;
 
 final class CommandProcessor {
-    private final Storage storage = new Storage();
-    private final TaskList tasks;
+    /** Number of deadlines {@code upcoming} shows when no count is given. */
+    static final int DEFAULT_UPCOMING = 5;
+    /** Most removed tasks a bulk delete lists individually. */
+    static final int PREVIEW_LIMIT = 10;
+
+    private final Workspaces workspaces;
+    /** Listeners registered through {@link #watch}; they follow the active workspace. */
+    private final List<TaskList.ChangeListener> watchers = new ArrayList<>();
+    private Workspaces.Workspace active;
+    private Storage storage;
+    private TaskList tasks;
+    private UndoLog undoLog;
+    /** Change stream handed out by {@link #events()}, or {@code null} until first asked for. */
+    private TaskEventPublisher events;
+    /** Edits applied since the open transaction began, or {@code null} when none is open. */
+    private List<UndoLog.Edit> pending;
+    /** Whether the command being handled produced an error. */
+    private boolean isFailed;
 
     CommandProcessor() {
-        List<Task> loaded = storage.load();
-        assert loaded != null : "Storage.load() must return non-null list";
-        this.tasks = new TaskList(loaded);
+        this(new Workspaces());
+    }
+
+    /**
+     * Creates a processor over the given workspaces, starting in {@link Workspaces#DEFAULT_NAME}.
+     *
+     * @param workspaces workspaces to switch between with {@code use}
+     */
+    CommandProcessor(Workspaces workspaces) {
+        assert workspaces != null : "CommandProcessor(): workspaces must not be null";
+        this.workspaces = workspaces;
+        switchTo(Workspaces.DEFAULT_NAME);
+    }
+
+    /** Blocks until every pending background save, in every open workspace, has been written. */
+    void flush() {
+        workspaces.flushAll();
     }
 
     boolean isExit(String rawLine) {
@@ -20,18 +53,136 @@ final class CommandProcessor {
         return parsed.command == Command.BYE;
     }
 
+    /**
+     * Registers a listener for every change to the task list. Call on the thread that runs {@link #handle}.
+     *
+     * @param listener listener to register
+     * @return snapshot of the list the listener starts from
+     */
+    List<Task> watch(TaskList.ChangeListener listener) {
+        watchers.add(listener);
+        return tasks.subscribe(listener);
+    }
+
+    /**
+     * Returns the stream of change events for whichever workspace is active, creating it on first use.
+     * Subscribe on the thread that runs {@link #handle}.
+     *
+     * @return publisher of task list changes
+     */
+    Flow.Publisher<TaskEvent> events() {
+        if (events == null) {
+            events = new TaskEventPublisher(() -> tasks.view());
+            watch(events);
+        }
+        return events;
+    }
+
+    /** Returns whether a transaction opened with {@code begin} is still open. */
+    boolean isInTransaction() {
+        return pending != null;
+    }
+
+    /**
+     * Runs one command, or several separated by {@code ;} as a single transaction.
+     * Write {@code \;} for a semicolon that belongs to the command, e.g. inside a description.
+     *
+     * @param rawLine user input
+     * @return the framed reply
+     */
     String handle(String rawLine) {
-        String line = rawLine == null ? "" : rawLine.trim();
+        List<String> steps = Parser.splitSequence(rawLine == null ? "" : rawLine);
+        if (steps.size() > 1) {
+            return handleSequence(steps);
+        }
+        return handleOne(steps.isEmpty() ? "" : steps.get(0));
+    }
+
+    /**
+     * Runs {@code ;}-separated commands as one unit: if any of them fails, every change made by the
+     * earlier ones is reverted and nothing reaches disk. Otherwise the list is saved once at the end,
+     * or left for {@code commit} when the sequence runs inside an open transaction.
+     */
+    private String handleSequence(List<String> steps) {
+        for (String step : steps) {
+            if (isTransactionControl(Parser.parse(step).command)) {
+                return err("\"" + step + "\" cannot be part of a ; sequence.\n"
+                        + "Use begin / commit / rollback on their own lines instead.");
+            }
+        }
+
+        boolean isImplicit = pending == null;
+        if (isImplicit) {
+            begin();
+        }
+        int savepoint = pending.size();
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < steps.size(); i++) {
+            out.append(handleOne(steps.get(i))).append('\n');
+            if (isFailed) {
+                int reverted = rollbackTo(savepoint);
+                if (isImplicit) {
+                    end();
+                }
+                return out.append(block("Command " + (i + 1) + " of " + steps.size() + " failed; reverted "
+                        + reverted + " change(s). Nothing was saved.")).toString();
+            }
+        }
+        if (isImplicit) {
+            commit();
+        }
+        return out.toString().trim();
+    }
+
+    private String handleOne(String line) {
         Parser.SplitCommand parsed = Parser.parse(line);
         assert parsed != null : "Parser must not return null";
+        isFailed = false;
 
         try {
             switch (parsed.command) {
             case BYE:
+                if (pending != null) {
+                    int reverted = rollbackTo(0);
+                    end();
+                    flush();
+                    return block("Rolled back " + reverted + " uncommitted change(s).\nGoodbye, fellow adult!");
+                }
+                flush();
                 return block("Goodbye, fellow adult!");
 
-            case LIST:
-                return renderList(tasks.view());
+            case BEGIN:
+                if (pending != null) {
+                    return err("A transaction is already open.\nUse: commit or rollback");
+                }
+                begin();
+                return block("Transaction started. Changes stay in memory until commit or rollback.");
+
+            case COMMIT: {
+                if (pending == null) {
+                    return err("No transaction is open.\nUse: begin");
+                }
+                int count = commit();
+                return block("Committed " + count + " change(s).\nNow you have " + tasks.size() + " task(s).");
+            }
+
+            case ROLLBACK: {
+                if (pending == null) {
+                    return err("No transaction is open.\nUse: begin");
+                }
+                int reverted = rollbackTo(0);
+                end();
+                return block("Rolled back " + reverted + " change(s).\nNow you have " + tasks.size() + " task(s).");
+            }
+
+            case LIST: {
+                List<Task> snapshot = tasks.view();
+                String arg = parsed.argOrEmpty().trim();
+                ListRenderer.Page page = arg.isEmpty() && snapshot.size() > ListRenderer.DEFAULT_PAGE_SIZE
+                        ? ListRenderer.page(1, ListRenderer.DEFAULT_PAGE_SIZE, snapshot.size())
+                        : ListRenderer.parse(arg, snapshot.size());
+                return renderList(snapshot, page);
+            }
 
             case TODO: {
                 String description = parsed.argOrEmpty().trim();
@@ -40,7 +191,8 @@ final class CommandProcessor {
                 }
                 Task task = new Todo(description);
                 tasks.add(task);
-                storage.save(tasks.view());
+                storage.recordAdd(task, tasks.view());
+                record(UndoLog.added(tasks.size() - 1, task));
                 return added(task, tasks.size());
             }
 
@@ -59,7 +211,8 @@ final class CommandProcessor {
                 }
                 Task task = new Deadline(parts[0].trim(), by);
                 tasks.add(task);
-                storage.save(tasks.view());
+                storage.recordAdd(task, tasks.view());
+                record(UndoLog.added(tasks.size() - 1, task));
                 return added(task, tasks.size());
             }
 
@@ -80,45 +233,42 @@ final class CommandProcessor {
                 }
                 Task task = new Event(first[0].trim(), from, to);
                 tasks.add(task);
-                storage.save(tasks.view());
+                storage.recordAdd(task, tasks.view());
+                record(UndoLog.added(tasks.size() - 1, task));
                 return added(task, tasks.size());
             }
 
-            case MARK: {
-                int idx = parseIndex(parsed.argOrEmpty(), tasks.size());
-                assert idx >= 0 && idx < tasks.size();
-                tasks.mark(idx);
-                storage.save(tasks.view());
-                return block("Marked as done:\n  " + tasks.get(idx));
-            }
+            case MARK:
+                return changeStatus(parsed.argOrEmpty().trim(), Status.DONE);
 
-            case UNMARK: {
-                int idx = parseIndex(parsed.argOrEmpty(), tasks.size());
-                tasks.unmark(idx);
-                storage.save(tasks.view());
-                return block("Marked as not done:\n  " + tasks.get(idx));
-            }
+            case UNMARK:
+                return changeStatus(parsed.argOrEmpty().trim(), Status.NOT_DONE);
 
             case DELETE: {
                 String arg = parsed.argOrEmpty().trim();
                 if (arg.isEmpty()) {
-                    return err("Delete requires an index.\nUse: delete <TASK_NUMBER> or delete N, M, ...");
+                    return err("Delete requires an index.\n"
+                            + "Use: delete <N[, M-K, ...]> | delete done | delete before <DATE>");
                 }
-                // Accept single or multiple indices seamlessly.
-                List<Integer> indices = parseMultipleIndices(arg, tasks.size()); // zero-based, descending, unique
+                int[] selected = Selection.resolve(arg, tasks.view());
+                if (selected.length == 0) {
+                    return block("No tasks matched \"" + arg + "\".");
+                }
+                List<Integer> indices = descending(selected);
                 if (indices.size() == 1) {
                     int idx = indices.get(0);
                     Task removed = tasks.removeAt(idx);
-                    storage.save(tasks.view());
+                    storage.recordDelete(indices, tasks.view());
+                    record(UndoLog.deleted(indices, List.of(removed)));
                     return block("Removed:\n  " + removed + "\nNow you have " + tasks.size() + " task(s).");
                 } else {
                     List<Task> removed = tasks.removeManyDescending(indices);
-                    storage.save(tasks.view());
+                    storage.recordDelete(indices, tasks.view());
+                    record(UndoLog.deleted(indices, removed));
                     return formatRemovedMany(removed, tasks.size());
                 }
             }
 
-
             case ON: {
                 String raw = parsed.argOrEmpty().trim();
                 LocalDate target = DateTimeUtil.tryParseToLocalDate(raw);
@@ -154,11 +304,73 @@ final class CommandProcessor {
                 return block(sb.toString().trim());
             }
 
+            case UNDO: {
+                if (pending != null) {
+                    return err("Finish the open transaction first.\nUse: commit or rollback");
+                }
+                UndoLog.Edit undone = undoLog.undo(tasks, storage);
+                return block("Undid " + undone.describe() + ".\nNow you have " + tasks.size() + " task(s).");
+            }
+
+            case REDO: {
+                if (pending != null) {
+                    return err("Finish the open transaction first.\nUse: commit or rollback");
+                }
+                UndoLog.Edit redone = undoLog.redo(tasks, storage);
+                return block("Redid " + redone.describe() + ".\nNow you have " + tasks.size() + " task(s).");
+            }
+
+            case UPCOMING: {
+                int limit = Parser.parseCount(parsed.argOrEmpty(), DEFAULT_UPCOMING);
+                List<Task> hits = tasks.upcoming(LocalDateTime.now(), limit);
+                if (hits.isEmpty()) {
+                    return block("No upcoming deadlines.");
+                }
+                return renderHits("Next " + hits.size() + " deadline(s):", hits);
+            }
+
+            case OVERDUE: {
+                List<Task> hits = tasks.overdue(LocalDateTime.now());
+                if (hits.isEmpty()) {
+                    return block("Nothing is overdue.");
+                }
+                return renderHits("Overdue deadlines:", hits);
+            }
+
+            case BETWEEN: {
+                LocalDate[] range = DateTimeUtil.tryParseDateRange(parsed.argOrEmpty());
+                if (range == null) {
+                    return err("Unrecognized date range.\nUse: between <DATE> <DATE>\n"
+                            + "Example: between 2019-12-01 2019-12-31");
+                }
+                List<Task> hits = tasks.between(range[0], range[1]);
+                String span = DateTimeUtil.pretty(range[0]) + " and " + DateTimeUtil.pretty(range[1]);
+                if (hits.isEmpty()) {
+                    return block("No deadlines between " + span + ".");
+                }
+                return renderHits("Deadlines between " + span + ":", hits);
+            }
+
+            case USE: {
+                if (parsed.argOrEmpty().isBlank()) {
+                    return block("Using workspace \"" + active.name + "\" (" + tasks.size() + " task(s)).\n"
+                            + "In memory: " + String.join(", ", workspaces.residentNames()) + "\nUse: use <NAME>");
+                }
+                String name = Workspaces.validate(parsed.argOrEmpty());
+                if (pending != null) {
+                    return err("Finish the open transaction first.\nUse: commit or rollback");
+                }
+                switchTo(name);
+                return block("Now using workspace \"" + name + "\".\nIt has " + tasks.size() + " task(s).");
+            }
+
             case UNKNOWN:
             default:
                 return err("Unknown command: \"" + line + "\".\n"
-                        + "Try: list, todo, deadline, event, mark N, unmark N, delete N,"
-                        + " on <DATE>, find <KEYWORD>, bye.");
+                        + "Try: list [page N], todo, deadline, event, mark N, unmark N, delete N,"
+                        + " on <DATE>, find <KEYWORD>, upcoming [N], overdue, between <DATE> <DATE>, undo, redo,"
+                        + " begin, commit, rollback, use <NAME>, bye.\n"
+                        + "Separate commands with ; to run them as one unit.");
             }
         } catch (TkitException e) {
             return err(e.getMessage());
@@ -167,104 +379,166 @@ final class CommandProcessor {
         }
     }
 
-    private static int parseIndex(String userSuppliedIndex, int currentSize) throws TkitException {
-        assert currentSize >= 0 : "currentSize must be non-negative";
-        String trimmed = userSuppliedIndex.trim();
-        assert !trimmed.isEmpty() : "index string pre-validated to be non-empty";
-        try {
-            int oneBased = Integer.parseInt(trimmed);
-            int zeroBased = oneBased - 1;
-            if (zeroBased < 0 || zeroBased >= currentSize) {
-                throw new TkitException("Invalid task number: " + oneBased + ". List has " + currentSize + " task(s).");
-            }
-            return zeroBased;
-        } catch (NumberFormatException e) {
-            throw new TkitException("Task number must be of type int. Received: \"" + trimmed + "\"");
+    /** Makes a workspace active, loading it if needed, and moves every watcher onto its list. */
+    private void switchTo(String name) {
+        Workspaces.Workspace next = workspaces.open(name);
+        if (next == active) {
+            return;
+        }
+        for (TaskList.ChangeListener l : watchers) {
+            tasks.unsubscribe(l);
+        }
+        active = next;
+        storage = next.storage;
+        tasks = next.tasks;
+        undoLog = next.undoLog;
+        for (TaskList.ChangeListener l : watchers) {
+            l.reset(tasks.subscribe(l));
+        }
+    }
+
+    private static boolean isTransactionControl(Command command) {
+        return command == Command.BEGIN || command == Command.COMMIT || command == Command.ROLLBACK
+                || command == Command.UNDO || command == Command.REDO || command == Command.BYE;
+    }
+
+    /** Keeps an applied edit for rollback while a transaction is open, or in the undo history otherwise. */
+    private void record(UndoLog.Edit edit) {
+        if (pending != null) {
+            pending.add(edit);
+        } else {
+            undoLog.record(edit);
         }
     }
 
+    /** Opens a transaction; journal records are held back until {@link #commit()}. */
+    private void begin() {
+        assert pending == null : "begin(): a transaction is already open";
+        pending = new ArrayList<>();
+        storage.setDeferred(true);
+    }
+
     /**
-     * Parses one or more 1-based indices separated by commas and/or whitespace.
-     * Duplicates are de-duplicated. On any out-of-range index, throws with a message
-     * listing the offending 1-based numbers and guarantees no mutation should occur.
+     * Closes the open transaction with one save and files its edits as a single undo entry.
+     *
+     * @return number of edits committed
      */
-    private static List<Integer> parseMultipleIndices(String arg, int currentSize) throws TkitException {
-        assert currentSize >= 0 : "currentSize must be non-negative";
-        String s = arg == null ? "" : arg.trim();
-        if (s.isEmpty()) {
-            throw new TkitException("Delete requires at least one index. Use: delete <N[, M, ...]>");
+    private int commit() {
+        int count = pending.size();
+        if (count > 0) {
+            undoLog.record(count == 1 ? pending.get(0) : UndoLog.batch(pending));
         }
-        String[] tokens = s.split("[,\\s]+");
-        List<Integer> oneBased = new java.util.ArrayList<>();
-        for (String tok : tokens) {
-            if (tok.isBlank()) {
-                continue;
-            }
-            try {
-                oneBased.add(Integer.parseInt(tok));
-            } catch (NumberFormatException nfe) {
-                throw new TkitException("Task number must be of type int. Received: \"" + tok + "\"");
-            }
+        storage.checkpoint(tasks.view());
+        end();
+        return count;
+    }
+
+    /**
+     * Reverts, newest first, every edit of the open transaction after {@code savepoint}.
+     *
+     * @return number of edits reverted
+     */
+    private int rollbackTo(int savepoint) {
+        int count = pending.size() - savepoint;
+        while (pending.size() > savepoint) {
+            UndoLog.revert(pending.remove(pending.size() - 1), tasks, storage);
         }
-        if (oneBased.isEmpty()) {
-            throw new TkitException("Delete requires at least one index. Use: delete <N[, M, ...]>");
+        return count;
+    }
+
+    /** Leaves the open transaction; anything it left unsaved has been reverted or checkpointed. */
+    private void end() {
+        storage.discardDeferred();
+        storage.setDeferred(false);
+        pending = null;
+    }
+
+    /**
+     * Marks or unmarks every selected task in one pass, with one journal record or snapshot.
+     *
+     * @param arg selection, see {@link Selection}
+     * @param status status to set
+     * @return the framed reply
+     */
+    private String changeStatus(String arg, Status status) throws TkitException {
+        String verb = status == Status.DONE ? "mark" : "unmark";
+        if (arg.isEmpty()) {
+            throw new TkitException("Task number required.\nUse: " + verb + " <N[, M-K, ...]> | " + verb
+                    + " done | undone | all | before <DATE>");
         }
-        // Collect out-of-range 1-based numbers
-        List<Integer> oob = new java.util.ArrayList<>();
-        for (int ob : oneBased) {
-            int zb = ob - 1;
-            if (zb < 0 || zb >= currentSize) {
-                oob.add(ob);
-            }
+        int[] selected = Selection.resolve(arg, tasks.view());
+        if (selected.length == 0) {
+            return block("No tasks matched \"" + arg + "\".");
         }
-        if (!oob.isEmpty()) {
-            String bad = oob.stream()
-                    .sorted()
-                    .map(String::valueOf)
-                    .reduce((a, b) -> a + ", " + b)
-                    .orElse("");
-            throw new TkitException("These task number(s) do not exist: " + bad + ". No tasks were deleted.");
+        int[] changed = tasks.setStatusAll(selected, status);
+        storage.recordStatusAll(changed, status, tasks.view());
+        if (changed.length > 0) {
+            record(UndoLog.statusChanged(changed, status));
         }
-        // De-duplicate and convert to zero-based descending for safe deletion
-        java.util.Set<Integer> uniq = new java.util.HashSet<>(oneBased);
-        java.util.List<Integer> zeroBased = new java.util.ArrayList<>();
-        for (int ob : uniq) {
-            zeroBased.add(ob - 1);
+        String heading = status == Status.DONE ? "Marked as done" : "Marked as not done";
+        if (selected.length == 1) {
+            return block(heading + ":\n  " + tasks.get(selected[0]));
         }
-        zeroBased.sort(java.util.Collections.reverseOrder());
-        return zeroBased;
+        return block(heading + ": " + selected.length + " task(s), of which " + changed.length + " changed.");
     }
 
-    private static String formatRemovedMany(java.util.List<Task> removed, int totalAfter) {
+    /** Converts ascending positions to the strictly descending list the delete path expects. */
+    private static List<Integer> descending(int[] ascending) {
+        List<Integer> out = new ArrayList<>(ascending.length);
+        for (int i = ascending.length - 1; i >= 0; i--) {
+            out.add(ascending[i]);
+        }
+        return out;
+    }
+
+    private static String formatRemovedMany(List<Task> removed, int totalAfter) {
         StringBuilder sb = new StringBuilder();
         sb.append("Removed ").append(removed.size()).append(" task(s):\n");
-        for (Task t : removed) {
-            sb.append("  ").append(t).append('\n');
+        int shown = Math.min(removed.size(), PREVIEW_LIMIT);
+        for (int i = 0; i < shown; i++) {
+            sb.append("  ").append(removed.get(i)).append('\n');
+        }
+        if (removed.size() > shown) {
+            sb.append("  ... and ").append(removed.size() - shown).append(" more\n");
         }
         sb.append("Now you have ").append(totalAfter).append(" task(s).");
         return block(sb.toString().trim());
     }
 
 
-    private static String renderList(List<Task> tasks) {
+    /**
+     * Renders one page of the list. A plain {@code list} of a long list shows only the first page, so the
+     * reply stays small enough for a single dialog bubble.
+     */
+    private static String renderList(List<Task> tasks, ListRenderer.Page page) throws IOException {
         assert tasks != null : "renderList(): tasks must not be null";
         StringBuilder sb = new StringBuilder();
         if (tasks.isEmpty()) {
             sb.append("There are no entries yet.");
         } else {
             sb.append("Here are the tasks in your list:\n");
-            for (int i = 0; i < tasks.size(); i++) {
-                sb.append(i + 1).append(". ").append(tasks.get(i)).append('\n');
+            ListRenderer.write(tasks, page, sb);
+            if (!page.isWhole()) {
+                sb.append(ListRenderer.footer(page, tasks.size()));
             }
         }
         return block(sb.toString().trim());
     }
 
+    private static String renderHits(String heading, List<Task> hits) {
+        StringBuilder sb = new StringBuilder(heading).append('\n');
+        for (int i = 0; i < hits.size(); i++) {
+            sb.append(i + 1).append(". ").append(hits.get(i)).append('\n');
+        }
+        return block(sb.toString().trim());
+    }
+
     private static String block(String body) {
         return "____________________\n" + body + "\n____________________";
     }
 
-    private static String err(String body) {
+    private String err(String body) {
+        isFailed = true;
         return block(body);
     }
 
@@ -0,0 +1,159 @@
+package tkit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Headless line-based command server on the loopback interface, sharing one in-memory list between clients.
+ * Responsibilities:
+ *   Accept connections on {@code 127.0.0.1} only and serve each on its own thread
+ *   Run every line through a single {@link CommandProcessor}: read-only commands ({@link Command#isReadOnly()})
+ *   under a shared read lock so they run in parallel, everything else under the exclusive write lock
+ *   Answer each line with the same framed reply the GUI shows, followed by one empty line
+ * {@code bye} closes the connection, not the server. {@code begin}/{@code commit}/{@code rollback} are
+ * refused, since a transaction would span clients; a {@code ;} sequence still runs atomically. {@code undo} and
+ * {@code redo} are refused too: the history is shared, so they could revert another client's change. So is
+ * {@code use NAME}, which would switch the workspace under every client; a bare {@code use} still reports it.
+ */
+final class CommandServer implements AutoCloseable {
+
+    /** Port used when none is given on the command line. */
+    static final int DEFAULT_PORT = 4117;
+
+    private final CommandProcessor processor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ExecutorService connections = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "tkit-conn-" + connectionCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private ServerSocket socket;
+
+    /**
+     * Creates a server over the given processor; nothing is bound until {@link #start(int)}.
+     *
+     * @param processor processor holding the shared list
+     */
+    CommandServer(CommandProcessor processor) {
+        assert processor != null : "CommandServer(): processor must not be null";
+        this.processor = processor;
+    }
+
+    /**
+     * Binds the loopback port and starts accepting connections on a background thread.
+     *
+     * @param port port to listen on, or {@code 0} for any free port
+     * @return the bound port
+     * @throws IOException if the port cannot be bound
+     */
+    int start(int port) throws IOException {
+        socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptForever, "tkit-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    private void acceptForever() {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                connections.execute(() -> serve(client));
+            } catch (SocketException closed) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Warning: could not accept a connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Answers lines from one client until it sends {@code bye} or disconnects. */
+    private void serve(Socket client) {
+        try (client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(
+                        new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String rawLine = line.trim();
+                if (rawLine.isEmpty()) {
+                    continue;
+                }
+                boolean isBye = processor.isExit(rawLine);
+                out.write(isBye ? "____________________\nGoodbye, fellow adult!\n____________________"
+                        : respond(rawLine));
+                out.write("\n\n");
+                out.flush();
+                if (isBye) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // client went away; nothing to clean up beyond the socket
+        }
+    }
+
+    /**
+     * Runs one line under the read or write lock, as its command requires.
+     *
+     * @param rawLine trimmed command line
+     * @return framed reply
+     */
+    String respond(String rawLine) {
+        Parser.SplitCommand parsed = Parser.parse(rawLine);
+        Command command = parsed.command;
+        if (command == Command.BEGIN || command == Command.COMMIT || command == Command.ROLLBACK) {
+            return "____________________\nTransactions are not available over the server.\n"
+                    + "Separate commands with ; to run them as one unit.\n____________________";
+        }
+        if (command == Command.UNDO || command == Command.REDO) {
+            return "____________________\nUndo and redo are not available over the server:\n"
+                    + "the history is shared by every client, so they could revert someone else's change.\n"
+                    + "____________________";
+        }
+        if (command == Command.USE && !parsed.argOrEmpty().isBlank()) {
+            return "____________________\nSwitching workspaces is not available over the server:\n"
+                    + "every client shares the active workspace, so it would move them all.\n"
+                    + "____________________";
+        }
+        Lock held = command.isReadOnly() && Parser.splitSequence(rawLine).size() <= 1
+                ? lock.readLock()
+                : lock.writeLock();
+        held.lock();
+        try {
+            return processor.handle(rawLine);
+        } finally {
+            held.unlock();
+        }
+    }
+
+    /** Stops accepting, drops open connections and flushes pending saves. */
+    @Override
+    public void close() throws IOException {
+        if (socket != null) {
+            socket.close();
+        }
+        connections.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            processor.flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
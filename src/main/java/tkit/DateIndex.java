@@ -0,0 +1,146 @@
+package tkit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Date lookups for {@link TaskList}.
+ * Responsibilities:
+ *   Keep deadlines in a map sorted by due date/time, and the undone ones in a second such map
+ *   Keep event ranges, by calendar day, in an {@link IntervalTree}
+ *   Answer date queries in O(log n + k) instead of scanning every task
+ * Todos carry no date and are ignored. Deadlines that fall due together are bucketed by order key,
+ * so due-date queries come back sorted by due date and then by list order.
+ */
+final class DateIndex {
+
+    private final NavigableMap<LocalDateTime, TreeMap<Long, Task>> deadlines = new TreeMap<>();
+    private final NavigableMap<LocalDateTime, TreeMap<Long, Task>> pending = new TreeMap<>();
+    private final IntervalTree events = new IntervalTree();
+
+    /**
+     * Files a dated task; other tasks are ignored.
+     *
+     * @param t task to index
+     * @param order the task's order key in its list
+     */
+    void add(Task t, long order) {
+        if (t instanceof Deadline) {
+            LocalDateTime due = ((Deadline) t).getDueDate();
+            put(deadlines, due, order, t);
+            if (t.status != Status.DONE) {
+                put(pending, due, order, t);
+            }
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            long from = e.getFromDate().toLocalDate().toEpochDay();
+            long to = e.getToDate().toLocalDate().toEpochDay();
+            events.insert(t, Math.min(from, to), Math.max(from, to), order);
+        }
+    }
+
+    /**
+     * Removes a task filed by {@link #add(Task, long)}.
+     *
+     * @param t task to remove
+     * @param order order key the task was filed with
+     */
+    void remove(Task t, long order) {
+        if (t instanceof Deadline) {
+            LocalDateTime due = ((Deadline) t).getDueDate();
+            drop(deadlines, due, order);
+            drop(pending, due, order);
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            long from = e.getFromDate().toLocalDate().toEpochDay();
+            long to = e.getToDate().toLocalDate().toEpochDay();
+            boolean isRemoved = events.remove(Math.min(from, to), order);
+            assert isRemoved : "remove(): event was not indexed";
+        }
+    }
+
+    /**
+     * Returns deadlines due on {@code date} and events whose range covers it, in no particular order.
+     *
+     * @param date calendar date
+     * @return matching tasks
+     */
+    List<Task> onDate(LocalDate date) {
+        List<Task> hits = new ArrayList<>();
+        collect(deadlines.subMap(date.atStartOfDay(), true, date.plusDays(1).atStartOfDay(), false),
+                Integer.MAX_VALUE, hits);
+        events.stab(date.toEpochDay(), hits);
+        return hits;
+    }
+
+    /**
+     * Returns up to {@code limit} undone deadlines due at or after {@code now}, soonest first.
+     *
+     * @param now reference time
+     * @param limit maximum number of tasks
+     * @return matching deadlines in due order
+     */
+    List<Task> upcoming(LocalDateTime now, int limit) {
+        List<Task> hits = new ArrayList<>(Math.min(limit, 64));
+        collect(pending.tailMap(now, true), limit, hits);
+        return hits;
+    }
+
+    /**
+     * Returns undone deadlines due strictly before {@code now}, oldest first.
+     *
+     * @param now reference time
+     * @return matching deadlines in due order
+     */
+    List<Task> overdue(LocalDateTime now) {
+        List<Task> hits = new ArrayList<>();
+        collect(pending.headMap(now, false), Integer.MAX_VALUE, hits);
+        return hits;
+    }
+
+    /**
+     * Returns deadlines, done or not, due on any day from {@code first} to {@code last} inclusive.
+     *
+     * @param first first calendar day
+     * @param last last calendar day; not before {@code first}
+     * @return matching deadlines in due order
+     */
+    List<Task> between(LocalDate first, LocalDate last) {
+        assert !last.isBefore(first) : "between(): last must not precede first";
+        List<Task> hits = new ArrayList<>();
+        collect(deadlines.subMap(first.atStartOfDay(), true, last.plusDays(1).atStartOfDay(), false),
+                Integer.MAX_VALUE, hits);
+        return hits;
+    }
+
+    private static void collect(NavigableMap<LocalDateTime, TreeMap<Long, Task>> range, int limit, List<Task> into) {
+        int remaining = limit;
+        for (TreeMap<Long, Task> bucket : range.values()) {
+            for (Task t : bucket.values()) {
+                if (remaining-- <= 0) {
+                    return;
+                }
+                into.add(t);
+            }
+        }
+    }
+
+    private static void put(NavigableMap<LocalDateTime, TreeMap<Long, Task>> map, LocalDateTime due,
+                            long order, Task t) {
+        map.computeIfAbsent(due, k -> new TreeMap<>()).put(order, t);
+    }
+
+    private static void drop(NavigableMap<LocalDateTime, TreeMap<Long, Task>> map, LocalDateTime due, long order) {
+        TreeMap<Long, Task> bucket = map.get(due);
+        if (bucket != null) {
+            bucket.remove(order);
+            if (bucket.isEmpty()) {
+                map.remove(due);
+            }
+        }
+    }
+}
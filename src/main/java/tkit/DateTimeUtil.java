@@ -1,11 +1,15 @@
 package tkit;
 
+import java.nio.CharBuffer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.ChronoField;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Date/time parsing and formatting helpers for Level 8.
@@ -53,6 +57,12 @@ final class DateTimeUtil {
     private static final DateTimeFormatter OUT_DATE_TIME =
             DateTimeFormatter.ofPattern("MMM d yyyy HH:mm");
 
+    /** Most distinct date-times whose display form is kept; the cache is emptied when it fills up. */
+    static final int PRETTY_CACHE_LIMIT = 4096;
+
+    /** Display strings by date-time. A list usually holds few distinct dates, so most lookups hit. */
+    private static final Map<LocalDateTime, String> PRETTY_CACHE = new ConcurrentHashMap<>();
+
     private DateTimeUtil() { }
 
     /**
@@ -111,16 +121,24 @@ final class DateTimeUtil {
      */
     public static String pretty(LocalDateTime ldt) {
         assert ldt != null : "pretty(ldt): null";
-        if (ldt.toLocalTime().equals(LocalTime.MIDNIGHT)) {
-            return ldt.format(OUT_DATE);
+        String cached = PRETTY_CACHE.get(ldt);
+        if (cached != null) {
+            return cached;
+        }
+        String formatted = ldt.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? ldt.format(OUT_DATE)
+                : ldt.format(OUT_DATE_TIME);
+        if (PRETTY_CACHE.size() >= PRETTY_CACHE_LIMIT) {
+            PRETTY_CACHE.clear();
         }
-        return ldt.format(OUT_DATE_TIME);
+        PRETTY_CACHE.put(ldt, formatted);
+        return formatted;
     }
 
-    /** Prints (Pretty-print) LocalDate using OUT_DATE pattern. */
+    /** Prints (Pretty-print) LocalDate using OUT_DATE pattern; shares the cache of midnight date-times. */
     public static String pretty(LocalDate date) {
         assert date != null : "pretty(date): null";
-        return date.format(OUT_DATE);
+        return pretty(date.atStartOfDay());
     }
 
     /**
@@ -143,6 +161,10 @@ final class DateTimeUtil {
      */
     public static LocalDateTime parseStorageOrInput(String text) {
         String s = text.trim();
+        LocalDateTime fast = tryParseStorage(s, 0, s.length());
+        if (fast != null) {
+            return fast;
+        }
         try {
             return LocalDateTime.parse(s);
         } catch (Exception ignore) {
@@ -159,6 +181,10 @@ final class DateTimeUtil {
      */
     public static LocalDateTime tryParseStorageOrInput(String text) {
         String s = text.trim();
+        LocalDateTime fast = tryParseStorage(s, 0, s.length());
+        if (fast != null) {
+            return fast;
+        }
         try {
             return LocalDateTime.parse(s);
         } catch (Exception ignore) {
@@ -167,6 +193,89 @@ final class DateTimeUtil {
         return tryParseToLdt(s);
     }
 
+    /**
+     * Parses storage text held in {@code text[start, end)} without copying it into a new String first;
+     * falls back to the input formats on a copy. Returns null on failure.
+     *
+     * @param text text containing the date
+     * @param start index of the first character (inclusive)
+     * @param end index after the last character (exclusive)
+     * @return LocalDateTime or null
+     */
+    public static LocalDateTime tryParseStorageOrInput(CharSequence text, int start, int end) {
+        assert text != null && start >= 0 && start <= end && end <= text.length() : "tryParseStorageOrInput(): range";
+        LocalDateTime fast = tryParseStorage(text, start, end);
+        if (fast != null) {
+            return fast;
+        }
+        try {
+            return LocalDateTime.parse(CharBuffer.wrap(text, start, end));
+        } catch (Exception ignore) {
+            // fall through
+        }
+        return tryParseToLdt(text.subSequence(start, end).toString());
+    }
+
+    /**
+     * Parses the fixed storage layout {@code yyyy-MM-ddTHH:mm} (optionally {@code :ss}) held in
+     * {@code text[start, end)}. Digits and field ranges are validated in place and nothing is thrown,
+     * so well-formed lines never pay for exceptions. Returns null if the text does not match the layout.
+     *
+     * @param text text containing the date
+     * @param start index of the first character (inclusive)
+     * @param end index after the last character (exclusive)
+     * @return LocalDateTime or null
+     */
+    static LocalDateTime tryParseStorage(CharSequence text, int start, int end) {
+        int len = end - start;
+        if (len != 16 && len != 19) {
+            return null;
+        }
+        if (text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-' || text.charAt(start + 10) != 'T'
+                || text.charAt(start + 13) != ':' || (len == 19 && text.charAt(start + 16) != ':')) {
+            return null;
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        int hour = digits(text, start + 11, 2);
+        int minute = digits(text, start + 14, 2);
+        int second = len == 19 ? digits(text, start + 17, 2) : 0;
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    /** Reads {@code count} ASCII digits at {@code pos}; returns -1 if any character is not a digit. */
+    private static int digits(CharSequence text, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
     /**
      * Parses input string to LocalDate;
      * Returns null on failure.
@@ -192,6 +301,33 @@ final class DateTimeUtil {
         }
     }
 
+    /**
+     * Parses two dates separated by whitespace, each in any form accepted by
+     * {@link #tryParseToLocalDate(String)}. Since a date may itself contain a space
+     * (e.g. {@code 2019-12-02 1800}), every split point is tried from left to right.
+     *
+     * @param raw user input, e.g. {@code 2019-12-01 2019-12-31}
+     * @return the two dates in input order, or {@code null} if no split yields two valid dates
+     */
+    public static LocalDate[] tryParseDateRange(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String[] tokens = raw.trim().split("\\s+");
+        for (int cut = 1; cut < tokens.length; cut++) {
+            LocalDate first = tryParseToLocalDate(String.join(" ", Arrays.copyOfRange(tokens, 0, cut)));
+            if (first == null) {
+                continue;
+            }
+            LocalDate second = tryParseToLocalDate(String.join(" ",
+                    Arrays.copyOfRange(tokens, cut, tokens.length)));
+            if (second != null) {
+                return new LocalDate[] {first, second};
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns True if the given calendar date intersects
      * [start, end] by date (inclusive).
@@ -27,8 +27,13 @@ class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
+    protected Task copy() {
+        return new Deadline(description, dueDate);
+    }
+
+    @Override
+    protected String render() {
         assert dueDate != null : "Deadline must have dueAt";
-        return super.toString() + " (by: " + DateTimeUtil.pretty(dueDate) + ")";
+        return super.render() + " (by: " + DateTimeUtil.pretty(dueDate) + ")";
     }
 }
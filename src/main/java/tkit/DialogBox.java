@@ -2,8 +2,8 @@ package tkit;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
@@ -12,61 +12,77 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.shape.Circle;
 
-final class DialogBox {
+/**
+ * Reusable transcript cell: a bot message with the avatar on the left, or a user message on the right.
+ * The list view creates only as many cells as fit on screen and calls {@link #updateItem} as rows scroll
+ * into view, so every node here is built once per cell and then re-filled.
+ */
+final class DialogBox extends ListCell<ChatTranscript.Message> {
 
-    private DialogBox() { }
+    private static final double AVATAR_SIZE = 36;
 
-    private static Region spacer() {
-        Region r = new Region();
-        HBox.setHgrow(r, Priority.ALWAYS);
-        return r;
+    /** Decoded once and shared by every cell; an {@code Image} may back any number of image views. */
+    private static Image avatarImage;
+
+    private final HBox row = new HBox(8);
+    private final Region spacer = new Region();
+    private final StackPane avatar = avatar();
+    private final Label text = new Label();
+    private final StackPane bubble = new StackPane(text);
+
+    DialogBox() {
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        text.setWrapText(true);
+        text.getStyleClass().add("bubble-base");
+        bubble.setMaxWidth(520);
+        StackPane.setMargin(text, new Insets(0));
+        row.setFillHeight(false);
+        getStyleClass().add("dialog-cell");
     }
 
-    private static StackPane bubble(String text, String styleClass) {
-        Label l = new Label(text);
-        l.setWrapText(true);
-        l.getStyleClass().addAll("bubble-base", styleClass);
+    @Override
+    protected void updateItem(ChatTranscript.Message message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        setText(null);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        text.setText(message.text);
+        text.getStyleClass().removeAll("bot-bubble", "user-bubble");
+        text.getStyleClass().add(message.isBot ? "bot-bubble" : "user-bubble");
+        if (message.isBot) {
+            row.setAlignment(Pos.TOP_LEFT);
+            row.getChildren().setAll(avatar, bubble);
+        } else {
+            row.setAlignment(Pos.TOP_RIGHT);
+            row.getChildren().setAll(spacer, bubble);
+        }
+        setGraphic(row);
+    }
 
-        StackPane p = new StackPane(l);
-        p.setMaxWidth(520);
-        StackPane.setMargin(l, new Insets(0));
-        return p;
+    /** Returns the shared avatar image, decoding it on first use. Called on the FX thread only. */
+    private static Image avatarImage() {
+        if (avatarImage == null) {
+            avatarImage = new Image(MainApp.class.getResource("/tkit/gemini_tkit.png").toExternalForm(),
+                    AVATAR_SIZE, AVATAR_SIZE, true, true);
+        }
+        return avatarImage;
     }
 
-    /** Round image avatar loaded from resources. */
+    /** Round image avatar over the shared image. */
     private static StackPane avatar() {
-        Image img = new Image(
-                MainApp.class.getResource("/tkit/gemini_tkit.png").toExternalForm(),
-                36, 36, true, true);
-        ImageView iv = new ImageView(img);
-        iv.setFitWidth(36);
-        iv.setFitHeight(36);
+        ImageView iv = new ImageView(avatarImage());
+        iv.setFitWidth(AVATAR_SIZE);
+        iv.setFitHeight(AVATAR_SIZE);
 
-        Circle clip = new Circle(18, 18, 18);
+        Circle clip = new Circle(AVATAR_SIZE / 2, AVATAR_SIZE / 2, AVATAR_SIZE / 2);
         iv.setClip(clip);
 
         StackPane a = new StackPane(iv);
-        a.setMinSize(36, 36);
-        a.setPrefSize(36, 36);
-        a.setMaxSize(36, 36);
+        a.setMinSize(AVATAR_SIZE, AVATAR_SIZE);
+        a.setPrefSize(AVATAR_SIZE, AVATAR_SIZE);
+        a.setMaxSize(AVATAR_SIZE, AVATAR_SIZE);
         return a;
     }
-
-    /** Left-aligned bot message with avatar. */
-    static Node bot(String text) {
-        HBox row = new HBox(8);
-        row.setAlignment(Pos.TOP_LEFT);
-        row.getChildren().addAll(avatar(), bubble(text, "bot-bubble"));
-        row.setFillHeight(false);
-        return row;
-    }
-
-    /** Right-aligned user message (no avatar). */
-    static Node user(String text) {
-        HBox row = new HBox(8);
-        row.setAlignment(Pos.TOP_RIGHT);
-        row.getChildren().addAll(spacer(), bubble(text, "user-bubble"));
-        row.setFillHeight(false);
-        return row;
-    }
 }
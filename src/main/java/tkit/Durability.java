@@ -0,0 +1,55 @@
+package tkit;
+
+/**
+ * How much {@link Storage} pays to make a write survive a crash.
+ * Selected with the {@code tkit.durability} system property ({@code none}, {@code batched} or {@code commit}).
+ */
+enum Durability {
+    /** Writes are handed to the operating system only; never forced to disk. */
+    NONE("none"),
+    /** Each group of writes drained by the background writer is forced to disk once. */
+    BATCHED("batched"),
+    /** Every write is forced to disk before the command that caused it returns. */
+    COMMIT("commit");
+
+    /** System property consulted by {@link #fromConfig()}. */
+    static final String PROPERTY = "tkit.durability";
+
+    private final String keyword;
+
+    Durability(String keyword) {
+        assert keyword != null && !keyword.isBlank() : "Durability keyword must not be blank";
+        this.keyword = keyword;
+    }
+
+    /** Returns the configuration keyword for this level. */
+    public String keyword() {
+        return keyword;
+    }
+
+    /** True if writes at this level are forced to disk. */
+    boolean isSynced() {
+        return this != NONE;
+    }
+
+    /**
+     * Maps a configuration keyword to a level.
+     *
+     * @param keyword level name (case-insensitive); may be {@code null}
+     * @return matching level, or {@link #BATCHED} if unknown
+     */
+    static Durability fromKeyword(String keyword) {
+        String s = keyword == null ? "" : keyword.trim().toLowerCase();
+        for (Durability d : values()) {
+            if (d.keyword.equals(s)) {
+                return d;
+            }
+        }
+        return BATCHED;
+    }
+
+    /** Returns the level selected by the {@code tkit.durability} system property. */
+    static Durability fromConfig() {
+        return fromKeyword(System.getProperty(PROPERTY));
+    }
+}
@@ -36,8 +36,13 @@ class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        return super.toString()
+    protected Task copy() {
+        return new Event(description, fromDate, toDate);
+    }
+
+    @Override
+    protected String render() {
+        return super.render()
                 + " (fromDate: "
                 + DateTimeUtil.pretty(fromDate)
                 + " toDate: "
@@ -0,0 +1,361 @@
+package tkit;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Ordered sequence of tasks with logarithmic positional access and O(1) snapshots.
+ * Implemented as a persistent implicit treap: nodes are ordered by position rather than by key, every node
+ * records the size of its subtree, and nodes are never modified once built. An edit copies only the
+ * O(log n) nodes on its path and shares the rest, so an old root remains a valid, unchanging list.
+ * Responsibilities:
+ *   Get, append, insert, replace and remove by zero-based position in O(log n)
+ *   Remove many positions in one descent, in O(k log n)
+ *   Build from an existing list in O(n)
+ *   Hand out {@link Snapshot}s that any thread may read without locks while edits continue
+ * Priorities come from a SplitMix64 sequence, so the shape is random but reproducible.
+ */
+final class IndexedTaskTree {
+
+    /** Immutable treap node; all fields are final so snapshots are safe to share between threads. */
+    private static final class Node {
+        final Task task;
+        final long priority;
+        final int size;
+        final Node left;
+        final Node right;
+
+        Node(Task task, long priority, Node left, Node right) {
+            this.task = task;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node withLeft(Node newLeft) {
+            return new Node(task, priority, newLeft, right);
+        }
+
+        Node withRight(Node newRight) {
+            return new Node(task, priority, left, newRight);
+        }
+    }
+
+    private Node root;
+    private long seed;
+
+    /** Creates an empty tree. */
+    IndexedTaskTree() { }
+
+    /**
+     * Creates a tree holding {@code initial} in order, in linear time.
+     *
+     * @param initial tasks to hold
+     */
+    IndexedTaskTree(List<Task> initial) {
+        // Cartesian-tree construction over child indices, then one bottom-up pass to build the final nodes.
+        int n = initial.size();
+        Task[] items = initial.toArray(new Task[0]);
+        long[] priorities = new long[n];
+        int[] left = new int[n];
+        int[] right = new int[n];
+        int[] spine = new int[n];
+        int depth = 0;
+        for (int i = 0; i < n; i++) {
+            assert items[i] != null : "IndexedTaskTree(): tasks must not be null";
+            priorities[i] = nextPriority();
+            left[i] = -1;
+            right[i] = -1;
+            int last = -1;
+            while (depth > 0 && priorities[spine[depth - 1]] < priorities[i]) {
+                last = spine[--depth];
+            }
+            left[i] = last;
+            if (depth > 0) {
+                right[spine[depth - 1]] = i;
+            }
+            spine[depth++] = i;
+        }
+        root = depth == 0 ? null : build(spine[0], items, priorities, left, right);
+    }
+
+    private static Node build(int i, Task[] items, long[] priorities, int[] left, int[] right) {
+        Node l = left[i] < 0 ? null : build(left[i], items, priorities, left, right);
+        Node r = right[i] < 0 ? null : build(right[i], items, priorities, left, right);
+        return new Node(items[i], priorities[i], l, r);
+    }
+
+    /** Returns the number of tasks. */
+    int size() {
+        return size(root);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    /**
+     * Returns the task at a position.
+     *
+     * @param idx zero-based position
+     * @return task at the position
+     * @throws IndexOutOfBoundsException if {@code idx} is invalid
+     */
+    Task get(int idx) {
+        return get(root, idx);
+    }
+
+    private static Task get(Node n, int idx) {
+        if (idx < 0 || idx >= size(n)) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size(n));
+        }
+        while (true) {
+            int leftSize = size(n.left);
+            if (idx < leftSize) {
+                n = n.left;
+            } else if (idx == leftSize) {
+                return n.task;
+            } else {
+                idx -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    /**
+     * Appends a task at the end.
+     *
+     * @param t task to append
+     */
+    void add(Task t) {
+        insert(size(), t);
+    }
+
+    /**
+     * Inserts a task so that it ends up at position {@code idx}.
+     *
+     * @param idx zero-based position, from {@code 0} to {@code size()} inclusive
+     * @param t task to insert
+     */
+    void insert(int idx, Task t) {
+        assert idx >= 0 && idx <= size() : "insert(): index out of bounds";
+        assert t != null : "insert(): task must not be null";
+        Node[] parts = split(root, idx);
+        root = merge(merge(parts[0], new Node(t, nextPriority(), null, null)), parts[1]);
+    }
+
+    /**
+     * Replaces the task at a position.
+     *
+     * @param idx zero-based position
+     * @param t replacement task
+     * @return the task previously at the position
+     * @throws IndexOutOfBoundsException if {@code idx} is invalid
+     */
+    Task set(int idx, Task t) {
+        assert t != null : "set(): task must not be null";
+        Task old = get(idx);
+        root = set(root, idx, t);
+        return old;
+    }
+
+    private static Node set(Node n, int idx, Task t) {
+        int leftSize = size(n.left);
+        if (idx < leftSize) {
+            return n.withLeft(set(n.left, idx, t));
+        }
+        if (idx > leftSize) {
+            return n.withRight(set(n.right, idx - leftSize - 1, t));
+        }
+        return new Node(t, n.priority, n.left, n.right);
+    }
+
+    /**
+     * Replaces the tasks at every listed position in a single descent, copying each node on the way once.
+     *
+     * @param ascending unique zero-based positions in strictly ascending order
+     * @param replacements new tasks, matching {@code ascending}
+     */
+    void setAll(int[] ascending, Task[] replacements) {
+        assert ascending.length == replacements.length : "setAll(): one task per position";
+        root = setAll(root, ascending, replacements, 0, ascending.length, 0);
+    }
+
+    /**
+     * Replaces positions {@code idx[from..to)} in the subtree at {@code n}, whose first element sits at
+     * {@code offset}.
+     */
+    private static Node setAll(Node n, int[] idx, Task[] replacements, int from, int to, int offset) {
+        if (n == null || from == to) {
+            return n;
+        }
+        int here = offset + size(n.left);
+        int mid = from;
+        while (mid < to && idx[mid] < here) {
+            mid++;
+        }
+        boolean isReplaced = mid < to && idx[mid] == here;
+        Node left = setAll(n.left, idx, replacements, from, mid, offset);
+        Node right = setAll(n.right, idx, replacements, isReplaced ? mid + 1 : mid, to, here + 1);
+        Task task = isReplaced ? replacements[mid] : n.task;
+        return task == n.task && left == n.left && right == n.right ? n : new Node(task, n.priority, left, right);
+    }
+
+    /**
+     * Removes the task at a position.
+     *
+     * @param idx zero-based position
+     * @return removed task
+     * @throws IndexOutOfBoundsException if {@code idx} is invalid
+     */
+    Task remove(int idx) {
+        Task removed = get(idx);
+        Node[] head = split(root, idx);
+        Node[] tail = split(head[1], 1);
+        root = merge(head[0], tail[1]);
+        return removed;
+    }
+
+    /**
+     * Removes every listed position in a single descent.
+     *
+     * @param ascending unique zero-based positions in strictly ascending order
+     * @return removed tasks, in ascending position order
+     */
+    List<Task> removeAll(int[] ascending) {
+        List<Task> removed = new ArrayList<>(ascending.length);
+        root = removeAll(root, ascending, 0, ascending.length, 0, removed);
+        return removed;
+    }
+
+    /**
+     * Removes positions {@code idx[from..to)} from the subtree at {@code n}, whose first element sits at
+     * {@code offset}, appending removed tasks in order.
+     */
+    private static Node removeAll(Node n, int[] idx, int from, int to, int offset, List<Task> removed) {
+        if (n == null || from == to) {
+            return n;
+        }
+        int here = offset + size(n.left);
+        int mid = from;
+        while (mid < to && idx[mid] < here) {
+            mid++;
+        }
+        boolean isRemoved = mid < to && idx[mid] == here;
+        Node left = removeAll(n.left, idx, from, mid, offset, removed);
+        if (isRemoved) {
+            removed.add(n.task);
+        }
+        Node right = removeAll(n.right, idx, isRemoved ? mid + 1 : mid, to, here + 1, removed);
+        if (isRemoved) {
+            return merge(left, right);
+        }
+        return left == n.left && right == n.right ? n : new Node(n.task, n.priority, left, right);
+    }
+
+    /**
+     * Returns an O(1) snapshot of the current contents. Later edits to the tree do not affect it.
+     *
+     * @return read-only list fixed at the current contents
+     */
+    Snapshot view() {
+        return new Snapshot(root);
+    }
+
+    /**
+     * Read-only list fixed at one version of the tree; {@code get} is O(log n) and iteration is O(n).
+     * Safe to read from any thread without locking.
+     */
+    static final class Snapshot extends AbstractList<Task> {
+        private final Node root;
+
+        private Snapshot(Node root) {
+            this.root = root;
+        }
+
+        @Override
+        public Task get(int index) {
+            return IndexedTaskTree.get(root, index);
+        }
+
+        @Override
+        public int size() {
+            return IndexedTaskTree.size(root);
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new InOrder(root);
+        }
+    }
+
+    /** In-order iterator with an explicit stack of pending left spines. */
+    private static final class InOrder implements Iterator<Task> {
+        private final Deque<Node> stack = new ArrayDeque<>();
+
+        InOrder(Node root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node n) {
+            while (n != null) {
+                stack.push(n);
+                n = n.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Task next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node n = stack.pop();
+            pushLeft(n.right);
+            return n.task;
+        }
+    }
+
+    private long nextPriority() {
+        seed += 0x9e3779b97f4a7c15L;
+        return TreapPriority.of(seed);
+    }
+
+    /** Splits into the first {@code k} elements and the rest, copying only the nodes on the split path. */
+    private static Node[] split(Node n, int k) {
+        if (n == null) {
+            return new Node[] {null, null};
+        }
+        int leftSize = size(n.left);
+        if (k <= leftSize) {
+            Node[] parts = split(n.left, k);
+            return new Node[] {parts[0], n.withLeft(parts[1])};
+        }
+        Node[] parts = split(n.right, k - leftSize - 1);
+        return new Node[] {n.withRight(parts[0]), parts[1]};
+    }
+
+    /** Concatenates two trees, every element of {@code a} preceding every element of {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            return a.withRight(merge(a.right, b));
+        }
+        return b.withLeft(merge(a, b.left));
+    }
+}
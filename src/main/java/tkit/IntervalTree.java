@@ -0,0 +1,181 @@
+package tkit;
+
+import java.util.List;
+
+/**
+ * Interval tree over event date ranges, measured in whole calendar days.
+ * Implemented as a treap ordered by (start day, order key) where every node also records the
+ * largest end day in its subtree, so a stabbing query can skip subtrees that end too early.
+ * Order keys are unique per task, which makes every tree key unique.
+ * Priorities are derived from the order key by {@link TreapPriority}, keeping the shape deterministic.
+ */
+final class IntervalTree {
+
+    private static final class Node {
+        final Task task;
+        final long start;
+        final long end;
+        final long order;
+        final long priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(Task task, long start, long end, long order) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.order = order;
+            this.priority = TreapPriority.of(order);
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    /** Returns the number of intervals stored. */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Inserts an interval.
+     *
+     * @param task task that owns the interval
+     * @param start first day (epoch day), inclusive
+     * @param end last day (epoch day), inclusive; not before {@code start}
+     * @param order the task's order key in its list
+     */
+    void insert(Task task, long start, long end, long order) {
+        assert task != null && start <= end : "insert(): need a task and start <= end";
+        root = insert(root, new Node(task, start, end, order));
+        size++;
+    }
+
+    private Node insert(Node n, Node fresh) {
+        if (n == null) {
+            return fresh;
+        }
+        int c = compare(fresh.start, fresh.order, n);
+        assert c != 0 : "insert(): duplicate order key";
+        if (c < 0) {
+            n.left = insert(n.left, fresh);
+            if (n.left.priority > n.priority) {
+                n = rotateRight(n);
+            }
+        } else {
+            n.right = insert(n.right, fresh);
+            if (n.right.priority > n.priority) {
+                n = rotateLeft(n);
+            }
+        }
+        update(n);
+        return n;
+    }
+
+    /**
+     * Removes the interval previously inserted with the same start and order key.
+     *
+     * @param start first day the interval was inserted with
+     * @param order order key the interval was inserted with
+     * @return whether an interval was removed
+     */
+    boolean remove(long start, long order) {
+        int before = size;
+        root = remove(root, start, order);
+        return size < before;
+    }
+
+    private Node remove(Node n, long start, long order) {
+        if (n == null) {
+            return null;
+        }
+        int c = compare(start, order, n);
+        if (c < 0) {
+            n.left = remove(n.left, start, order);
+        } else if (c > 0) {
+            n.right = remove(n.right, start, order);
+        } else {
+            size--;
+            return merge(n.left, n.right);
+        }
+        update(n);
+        return n;
+    }
+
+    /**
+     * Appends every task whose interval contains {@code day}, in no particular order.
+     *
+     * @param day epoch day to stab
+     * @param into destination list
+     */
+    void stab(long day, List<Task> into) {
+        stab(root, day, into);
+    }
+
+    private static void stab(Node n, long day, List<Task> into) {
+        while (n != null && n.maxEnd >= day) {
+            stab(n.left, day, into);
+            if (n.start > day) {
+                return;
+            }
+            if (n.end >= day) {
+                into.add(n.task);
+            }
+            n = n.right;
+        }
+    }
+
+    private static int compare(long start, long order, Node n) {
+        int c = Long.compare(start, n.start);
+        return c != 0 ? c : Long.compare(order, n.order);
+    }
+
+    /** Joins two treaps where every key in {@code a} precedes every key in {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static void update(Node n) {
+        long m = n.end;
+        if (n.left != null) {
+            m = Math.max(m, n.left.maxEnd);
+        }
+        if (n.right != null) {
+            m = Math.max(m, n.right.maxEnd);
+        }
+        n.maxEnd = m;
+    }
+}
@@ -0,0 +1,226 @@
+package tkit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Append-only log of task mutations kept next to the snapshot file.
+ * Format (one record per line, first line is the header):
+ *   # base GEN
+ *   A ENCODED_TASK
+ *   I INDEX ENCODED_TASK
+ *   M INDEX
+ *   U INDEX
+ *   D INDEX [INDEX...]
+ * {@code GEN} names the snapshot generation the records apply on top of; a journal whose base does not
+ * match the snapshot is stale and is ignored. Indices are zero-based; delete indices are strictly descending.
+ * A torn or otherwise unreadable record is skipped and counted, like a corrupted snapshot line.
+ */
+final class Journal {
+
+    /** Header written as the first line of every journal file. */
+    private static final String BASE_HEADER = "# base ";
+
+    static final char ADD = 'A';
+    static final char INSERT = 'I';
+    static final char MARK = 'M';
+    static final char UNMARK = 'U';
+    static final char DELETE = 'D';
+
+    private final Path file;
+    private FileChannel out;
+
+    /**
+     * Creates a journal backed by the given file. Nothing is opened until {@link #open(long, boolean)}.
+     *
+     * @param file journal file path
+     */
+    Journal(Path file) {
+        assert file != null : "Journal file must not be null";
+        this.file = file;
+    }
+
+    /** True if the journal is currently open for appending. */
+    boolean isOpen() {
+        return out != null;
+    }
+
+    /**
+     * Opens the journal for appending. When {@code keepExisting} is set and the file already starts with the
+     * same base, new records are appended after the existing ones; otherwise the file is truncated and a fresh
+     * header is written.
+     *
+     * @param base snapshot generation the records apply on
+     * @param keepExisting whether to continue an existing journal with the same base
+     * @throws IOException if the file cannot be opened or written
+     */
+    void open(long base, boolean keepExisting) throws IOException {
+        close();
+        if (keepExisting && Files.exists(file) && readBase(file) == base) {
+            out = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return;
+        }
+        out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writeFully(BASE_HEADER + base + "\n");
+    }
+
+    /**
+     * Appends a group of records with a single write, optionally forcing them to disk.
+     *
+     * @param records encoded records without trailing newlines
+     * @param isSynced whether to force the journal to disk after writing
+     * @throws IOException if the write fails
+     */
+    void append(List<String> records, boolean isSynced) throws IOException {
+        assert out != null : "append(): journal not open";
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            assert record != null && record.indexOf('\n') < 0 : "append(): record must be a single line";
+            sb.append(record).append('\n');
+        }
+        writeFully(sb.toString());
+        if (isSynced) {
+            out.force(false);
+        }
+    }
+
+    private void writeFully(String text) throws IOException {
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(text);
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    /** Closes the journal if open. Errors are ignored since every group is written out on append. */
+    void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // intentional no-op: records were already handed to the operating system on append
+        }
+        out = null;
+    }
+
+    /**
+     * Reads the base generation from a journal header.
+     *
+     * @param journal journal file
+     * @return base generation, or {@code -1} if the file is missing or has no valid header
+     */
+    static long readBase(Path journal) {
+        if (!Files.exists(journal)) {
+            return -1;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(BASE_HEADER)) {
+                return -1;
+            }
+            return Long.parseLong(header.substring(BASE_HEADER.length()).trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Applies every record of a journal to the given list, in order.
+     *
+     * @param journal journal file; its header must already have been checked against the snapshot
+     * @param into tasks loaded so far; mutated in place
+     * @param decoder decodes an encoded task line, returning {@code null} if it is corrupted
+     * @return number of records that could not be applied
+     * @throws IOException if the file cannot be read
+     */
+    static int replay(Path journal, List<Task> into, Function<String, Task> decoder) throws IOException {
+        int corruptedCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    if (!apply(line, into, decoder)) {
+                        corruptedCount++;
+                    }
+                } catch (RuntimeException ex) {
+                    corruptedCount++;
+                }
+            }
+        }
+        return corruptedCount;
+    }
+
+    /** Applies a single record; returns {@code false} if it is malformed or does not fit the list. */
+    private static boolean apply(String record, List<Task> into, Function<String, Task> decoder) {
+        if (record.length() < 3 || record.charAt(1) != ' ') {
+            return false;
+        }
+        String body = record.substring(2);
+        switch (record.charAt(0)) {
+        case ADD: {
+            Task t = decoder.apply(body.trim());
+            if (t == null) {
+                return false;
+            }
+            into.add(t);
+            return true;
+        }
+        case INSERT: {
+            int space = body.indexOf(' ');
+            if (space < 0) {
+                return false;
+            }
+            int idx = Integer.parseInt(body.substring(0, space));
+            Task t = decoder.apply(body.substring(space + 1).trim());
+            if (t == null || idx < 0 || idx > into.size()) {
+                return false;
+            }
+            into.add(idx, t);
+            return true;
+        }
+        case MARK:
+        case UNMARK: {
+            int idx = Integer.parseInt(body.trim());
+            if (idx < 0 || idx >= into.size()) {
+                return false;
+            }
+            if (record.charAt(0) == MARK) {
+                into.get(idx).markAsDone();
+            } else {
+                into.get(idx).markAsUndone();
+            }
+            return true;
+        }
+        case DELETE: {
+            String[] tokens = body.trim().split(" ");
+            int last = Integer.MAX_VALUE;
+            for (String tok : tokens) {
+                int idx = Integer.parseInt(tok);
+                if (idx < 0 || idx >= into.size() || idx >= last) {
+                    return false;
+                }
+                last = idx;
+            }
+            for (String tok : tokens) {
+                into.remove(Integer.parseInt(tok));
+            }
+            return true;
+        }
+        default:
+            return false;
+        }
+    }
+}
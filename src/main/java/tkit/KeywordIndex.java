@@ -0,0 +1,119 @@
+package tkit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over lower-cased task descriptions, used to narrow {@code find} candidates.
+ * Every task is filed under each distinct three-character window of its lower-cased description.
+ * A keyword of at least three characters can only occur in tasks filed under all of its trigrams,
+ * so the smallest posting set, filtered by the others, is a superset of the true matches.
+ * Callers still run the substring check; shorter keywords are not indexed and fall back to a scan.
+ */
+final class KeywordIndex {
+
+    /** Length of the character windows the index is keyed on. */
+    static final int GRAM = 3;
+
+    private final Map<Long, Set<Task>> postings = new HashMap<>();
+
+    /**
+     * Files a task under every trigram of its description.
+     *
+     * @param t task to index
+     */
+    void add(Task t) {
+        for (long gram : grams(t.lowerDescription())) {
+            postings.computeIfAbsent(gram, k -> new HashSet<>()).add(t);
+        }
+    }
+
+    /**
+     * Removes a task from every posting it was filed under.
+     *
+     * @param t task to remove
+     */
+    void remove(Task t) {
+        for (long gram : grams(t.lowerDescription())) {
+            Set<Task> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(t);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Swaps one task for another with the same description, in every posting it was filed under.
+     *
+     * @param old task currently indexed
+     * @param replacement task to index in its place
+     */
+    void replace(Task old, Task replacement) {
+        assert old.description.equals(replacement.description) : "replace(): descriptions must match";
+        for (long gram : grams(old.lowerDescription())) {
+            Set<Task> posting = postings.get(gram);
+            posting.remove(old);
+            posting.add(replacement);
+        }
+    }
+
+    /**
+     * Returns tasks that contain every trigram of the keyword, in no particular order.
+     *
+     * @param keyword search text; leading/trailing spaces are ignored
+     * @return candidate tasks, or {@code null} if the keyword is too short to use the index
+     */
+    Collection<Task> candidates(String keyword) {
+        String lowered = keyword == null ? "" : keyword.trim().toLowerCase();
+        if (lowered.length() < GRAM) {
+            return null;
+        }
+        Set<Long> grams = grams(lowered);
+        List<Set<Task>> sets = new ArrayList<>(grams.size());
+        Set<Task> smallest = null;
+        for (long gram : grams) {
+            Set<Task> posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            sets.add(posting);
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+
+        List<Task> hits = new ArrayList<>();
+        for (Task t : smallest) {
+            if (isInAll(t, sets)) {
+                hits.add(t);
+            }
+        }
+        return hits;
+    }
+
+    private static boolean isInAll(Task t, List<Set<Task>> sets) {
+        for (Set<Task> posting : sets) {
+            if (!posting.contains(t)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Packs each distinct three-character window of {@code s} into a long. */
+    private static Set<Long> grams(String s) {
+        Set<Long> out = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            out.add(((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2));
+        }
+        return out;
+    }
+}
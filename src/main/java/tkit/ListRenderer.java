@@ -0,0 +1,149 @@
+package tkit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes numbered task lines into any {@link Appendable} sink, a page at a time.
+ * Responsibilities:
+ *   Parse the {@code list [page N] [size M]} arguments into a {@link Page}
+ *   Format only the tasks on that page, flushing to the sink every {@link #CHUNK_LINES} lines so the
+ *   memory held does not grow with the list
+ * Lines read from a {@link TaskList#view()} snapshot, so rendering never blocks or sees a half-applied edit.
+ */
+final class ListRenderer {
+
+    /** Tasks per page when {@code size} is not given. */
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Lines formatted before the buffer is handed to the sink. */
+    static final int CHUNK_LINES = 512;
+
+    private ListRenderer() { }
+
+    /** A contiguous run of list positions {@code [from, to)} plus where it sits among all pages. */
+    static final class Page {
+        final int number;
+        final int count;
+        final int size;
+        final int from;
+        final int to;
+
+        private Page(int number, int count, int size, int from, int to) {
+            assert from >= 0 && from <= to : "Page(): bad bounds";
+            this.number = number;
+            this.count = count;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** True if the page covers the whole list. */
+        boolean isWhole() {
+            return count <= 1;
+        }
+    }
+
+    /**
+     * Returns a page covering every task.
+     *
+     * @param total list size
+     * @return the whole-list page
+     */
+    static Page whole(int total) {
+        return new Page(1, 1, total, 0, total);
+    }
+
+    /**
+     * Parses {@code [page N] [size M]}, in either order. Blank means the whole list.
+     *
+     * @param arg raw argument of {@code list}
+     * @param total list size
+     * @return the requested page
+     * @throws TkitException if the argument is malformed or the page does not exist
+     */
+    static Page parse(String arg, int total) throws TkitException {
+        String s = arg == null ? "" : arg.trim();
+        if (s.isEmpty()) {
+            return whole(total);
+        }
+        String[] tokens = s.toLowerCase().split("\\s+");
+        if (tokens.length % 2 != 0) {
+            throw new TkitException("Use: list [page N] [size M]");
+        }
+        int number = 1;
+        int size = DEFAULT_PAGE_SIZE;
+        for (int i = 0; i < tokens.length; i += 2) {
+            if (tokens[i].equals("page")) {
+                number = Parser.parseCount(tokens[i + 1], 1);
+            } else if (tokens[i].equals("size")) {
+                size = Parser.parseCount(tokens[i + 1], DEFAULT_PAGE_SIZE);
+            } else {
+                throw new TkitException("Use: list [page N] [size M]");
+            }
+        }
+        return page(number, size, total);
+    }
+
+    /**
+     * Returns page {@code number} of a list split into pages of {@code size} tasks.
+     *
+     * @param number 1-based page number
+     * @param size tasks per page; must be positive
+     * @param total list size
+     * @return the page
+     * @throws TkitException if the page lies past the end of a non-empty list
+     */
+    static Page page(int number, int size, int total) throws TkitException {
+        assert number > 0 && size > 0 && total >= 0 : "page(): bad arguments";
+        int count = Math.max(1, (int) ((total + (long) size - 1) / size));
+        if (number > count) {
+            throw new TkitException("Page " + number + " does not exist. The list has " + count
+                    + " page(s) of " + size + ".");
+        }
+        long from = (long) (number - 1) * size;
+        return new Page(number, count, size, (int) from, (int) Math.min(total, from + size));
+    }
+
+    /**
+     * Appends {@code "N. task\n"} for every task on the page, numbered from the page's first position.
+     *
+     * @param tasks list snapshot
+     * @param page range to write
+     * @param sink destination, e.g. a {@link StringBuilder} or a buffered {@link java.io.PrintStream}
+     * @throws IOException if the sink fails
+     */
+    static void write(List<Task> tasks, Page page, Appendable sink) throws IOException {
+        assert page.to <= tasks.size() : "write(): page past the end of the list";
+        List<Task> slice = page.from == 0 && page.to == tasks.size() ? tasks : tasks.subList(page.from, page.to);
+        StringBuilder chunk = new StringBuilder();
+        int number = page.from + 1;
+        int inChunk = 0;
+        for (Task t : slice) {
+            chunk.append(number++).append(". ").append(t).append('\n');
+            if (++inChunk == CHUNK_LINES) {
+                sink.append(chunk);
+                chunk.setLength(0);
+                inChunk = 0;
+            }
+        }
+        sink.append(chunk);
+    }
+
+    /**
+     * Describes where a page sits, e.g. {@code Page 2 of 7 (tasks 101-200 of 650). Next: list page 3}.
+     *
+     * @param page page just written
+     * @param total list size
+     * @return one-line footer
+     */
+    static String footer(Page page, int total) {
+        String footer = "Page " + page.number + " of " + page.count + " (tasks " + (page.from + 1) + "-" + page.to
+                + " of " + total + ").";
+        if (page.number < page.count) {
+            footer += " Next: list page " + (page.number + 1)
+                    + (page.size == DEFAULT_PAGE_SIZE ? "" : " size " + page.size);
+        }
+        return footer;
+    }
+}
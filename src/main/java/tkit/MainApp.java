@@ -11,6 +11,8 @@ import javafx.stage.Stage;
  */
 public class MainApp extends Application {
 
+    private MainWindow controller;
+
     /**
      * Initializes and shows the primary stage.
      *
@@ -22,6 +24,7 @@ public class MainApp extends Application {
         FXMLLoader fxmlLoader = new FXMLLoader(
                 MainApp.class.getResource("/tkit/MainWindow.fxml"));
         Scene scene = new Scene(fxmlLoader.load());
+        controller = fxmlLoader.getController();
         scene.getStylesheets().add(
                 MainApp.class.getResource("/tkit/chat.css").toExternalForm());
         stage.setTitle("Tkit");
@@ -29,6 +32,17 @@ public class MainApp extends Application {
         stage.show();
     }
 
+    /**
+     * Flushes pending background saves before the JavaFX runtime shuts down.
+     * Runs after {@code Platform.exit()} and when the last window is closed.
+     */
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
     /**
      * Standard Java entry point.
      *
@@ -1,41 +1,77 @@
 package tkit;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.VBox;
 
 /**
  * JavaFX controller for the main chat window.
  * Wires UI controls to the command processor and renders dialogs.
+ * Commands run on a single background thread, so disk I/O and rendering never block the FX thread and
+ * commands still apply in the order they were typed; replies are posted back with {@link Platform#runLater}.
+ * The {@link CommandProcessor} is only ever touched from that thread.
  */
 public class MainWindow {
 
+    /** How long {@link #shutdown()} waits for queued commands before flushing. */
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
     private static final String WELCOME =
-            "Tkit ready. Commands: list | todo | deadline | event | mark | unmark | delete | on | find | bye";
+            "Tkit ready. Commands: list | todo | deadline | event | mark | unmark | delete | on | find"
+                    + " | upcoming | overdue | between | undo | redo"
+                    + " | begin | commit | rollback | use | bye";
 
-    @FXML private ScrollPane scrollPane;
-    @FXML private VBox dialogContainer;
+    @FXML private ListView<ChatTranscript.Message> dialogList;
     @FXML private TextField userInput;
     @FXML private Button sendButton;
+    @FXML private ProgressIndicator busyIndicator;
+    @FXML private TableView<Task> taskTable;
 
     private final CommandProcessor core = new CommandProcessor();
+    private ChatTranscript transcript;
+    private final TaskTableModel tableModel = new TaskTableModel();
+    private final Reminders reminders = new Reminders(Reminders.leadFromConfig(), LocalDateTime.now(),
+            text -> Platform.runLater(() -> transcript.add(ChatTranscript.Message.bot(text))));
+    private final ExecutorService commands = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "tkit-command");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Commands sent but not yet answered; read and written on the FX thread only. */
+    private int pendingCount;
 
     /**
      * Called by the JavaFX framework after FXML fields are injected.
-     * Adds the initial bot message and binds the scroll to content height.
+     * Attaches the transcript and the task table, adds the initial bot message and starts reminders.
+     * The table and the reminders subscribe on the command thread, so they start from a snapshot no command can
+     * race with.
      */
     @FXML
     public void initialize() {
-        dialogContainer.getChildren().add(DialogBox.bot(WELCOME));
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        transcript = new ChatTranscript(dialogList);
+        transcript.add(ChatTranscript.Message.bot(WELCOME));
+        tableModel.attach(taskTable);
+        commands.execute(() -> core.events().subscribe(tableModel));
+        commands.execute(() -> reminders.reset(core.watch(reminders)));
+        reminders.start();
+        busyIndicator.managedProperty().bind(busyIndicator.visibleProperty());
+        busyIndicator.setVisible(false);
     }
 
     /**
-     * Handles a user-entered line: echo, process, render response,
-     * clear input, and exit if requested.
+     * Handles a user-entered line: echo it, queue it on the command thread, and clear the input.
+     * The reply is appended when the command finishes; the busy indicator shows while any are queued.
      */
     @FXML
     private void handleUserInput() {
@@ -44,13 +80,43 @@ public class MainWindow {
             return;
         }
 
-        dialogContainer.getChildren().add(DialogBox.user(input));
-        String response = core.handle(input);
-        dialogContainer.getChildren().add(DialogBox.bot(response));
+        transcript.add(ChatTranscript.Message.user(input));
         userInput.clear();
+        boolean isExit = core.isExit(input);
+        if (isExit) {
+            userInput.setDisable(true);
+            sendButton.setDisable(true);
+        }
+        pendingCount++;
+        busyIndicator.setVisible(true);
+
+        CompletableFuture.supplyAsync(() -> core.handle(input), commands)
+                .exceptionally(ex -> "____________________\nError: " + ex.getMessage() + "\n____________________")
+                .thenAccept(response -> Platform.runLater(() -> showReply(response, isExit)));
+    }
 
-        if (core.isExit(input)) {
+    private void showReply(String response, boolean isExit) {
+        assert Platform.isFxApplicationThread() : "showReply(): must run on the FX thread";
+        transcript.add(ChatTranscript.Message.bot(response));
+        pendingCount--;
+        busyIndicator.setVisible(pendingCount > 0);
+        if (isExit) {
             Platform.exit();
         }
     }
+
+    /**
+     * Lets queued commands finish, then writes out any saves still queued in the background.
+     * Called when the application stops.
+     */
+    void shutdown() {
+        reminders.close();
+        commands.shutdown();
+        try {
+            commands.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        core.flush();
+    }
 }
@@ -1,14 +1,21 @@
 package tkit;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Parses raw user input lines into structured commands and arguments.
  * Responsibilities:
  *   Tokenize input into a {@link SplitCommand}
  *   Map the first token to a {@link Command}
+ *   Split a line into the commands of a {@code ;} sequence
  * Parsing is case-insensitive for command keywords; the remainder is preserved.
  */
 final class Parser {
 
+    /** Separates commands that run as one transaction; {@code \;} stands for a literal one. */
+    static final char SEPARATOR = ';';
+
     private Parser() { }
 
     /**
@@ -55,4 +62,64 @@ final class Parser {
 
         return new SplitCommand(cmd, rest);
     }
+
+    /**
+     * Parses an optional positive count argument, such as the {@code N} in {@code upcoming N}.
+     *
+     * @param arg raw argument; blank means {@code defaultCount}
+     * @param defaultCount value used when no count is given
+     * @return the count, always positive
+     * @throws TkitException if the argument is not a positive integer
+     */
+    static int parseCount(String arg, int defaultCount) throws TkitException {
+        assert defaultCount > 0 : "defaultCount must be positive";
+        String trimmed = arg == null ? "" : arg.trim();
+        if (trimmed.isEmpty()) {
+            return defaultCount;
+        }
+        int count;
+        try {
+            count = Integer.parseInt(trimmed);
+        } catch (NumberFormatException e) {
+            throw new TkitException("Count must be of type int. Received: \"" + trimmed + "\"");
+        }
+        if (count <= 0) {
+            throw new TkitException("Count must be positive. Received: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Splits a line into the commands of a {@code ;} sequence.
+     * An escaped {@code \;} does not split and becomes a plain {@code ;}, so descriptions may contain one.
+     * Steps are trimmed and blank ones are dropped.
+     *
+     * @param line full input line
+     * @return the commands in order; one element if the line has no unescaped separator
+     */
+    static List<String> splitSequence(String line) {
+        List<String> steps = new ArrayList<>();
+        StringBuilder step = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length() && line.charAt(i + 1) == SEPARATOR) {
+                step.append(SEPARATOR);
+                i++;
+            } else if (c == SEPARATOR) {
+                addStep(steps, step);
+            } else {
+                step.append(c);
+            }
+        }
+        addStep(steps, step);
+        return steps;
+    }
+
+    private static void addStep(List<String> steps, StringBuilder step) {
+        String trimmed = step.toString().trim();
+        if (!trimmed.isEmpty()) {
+            steps.add(trimmed);
+        }
+        step.setLength(0);
+    }
 }
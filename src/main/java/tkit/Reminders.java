@@ -0,0 +1,178 @@
+package tkit;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Announces deadlines and event starts a configurable lead time before they happen.
+ * Responsibilities:
+ *   Follow a {@link TaskList} as a {@link TaskList.ChangeListener}: schedule a reminder when an undone deadline or
+ *   event is added, cancel it when the task is deleted or marked done, and rebuild on a reset
+ *   Keep every pending reminder in one {@link TimingWheel} ticking in minutes, so scheduling and cancelling cost
+ *   O(1) however many tasks are waiting
+ *   Advance the wheel from a single clock thread and hand each due reminder's text to a sink
+ * Times already past are not reminded of; {@code overdue} covers them. A time inside the lead window is reminded
+ * of on the next clock tick. List callbacks and the clock thread both go through this object's lock.
+ */
+final class Reminders implements TaskList.ChangeListener, AutoCloseable {
+
+    /** System property giving the lead time in minutes. */
+    static final String LEAD_PROPERTY = "tkit.reminder.lead";
+
+    /** Lead time in minutes when the property is unset or invalid. */
+    static final long DEFAULT_LEAD_MINUTES = 60;
+
+    /** How often the clock thread checks whether the minute has moved on. */
+    private static final long POLL_SECONDS = 1;
+
+    private final long leadMinutes;
+    private final Consumer<String> sink;
+    private final TimingWheel<Task> wheel;
+    /** Pending timer of every task with a reminder, keyed by identity since status changes copy the task. */
+    private final Map<Task, TimingWheel.Timer<Task>> timers = new IdentityHashMap<>();
+    private ScheduledExecutorService clock;
+
+    /**
+     * Creates a scheduler with no reminders; the clock does not run until {@link #start()}.
+     *
+     * @param leadMinutes how long before a deadline or event start to remind
+     * @param now current time
+     * @param sink receives the text of each reminder, on the clock thread
+     */
+    Reminders(long leadMinutes, LocalDateTime now, Consumer<String> sink) {
+        assert leadMinutes >= 0 : "Reminders(): lead time must be non-negative";
+        assert now != null && sink != null : "Reminders(): arguments must not be null";
+        this.leadMinutes = leadMinutes;
+        this.sink = sink;
+        this.wheel = new TimingWheel<>(minuteOf(now));
+    }
+
+    /** Returns the lead time set by the {@code tkit.reminder.lead} system property. */
+    static long leadFromConfig() {
+        String value = System.getProperty(LEAD_PROPERTY);
+        try {
+            long minutes = value == null ? DEFAULT_LEAD_MINUTES : Long.parseLong(value.trim());
+            return minutes >= 0 ? minutes : DEFAULT_LEAD_MINUTES;
+        } catch (NumberFormatException e) {
+            return DEFAULT_LEAD_MINUTES;
+        }
+    }
+
+    /** Starts the clock thread that delivers reminders as their time comes. */
+    void start() {
+        assert clock == null : "start(): already started";
+        clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tkit-reminders");
+            t.setDaemon(true);
+            return t;
+        });
+        clock.scheduleWithFixedDelay(() -> advanceTo(LocalDateTime.now()), 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Delivers every reminder due by {@code now} to the sink.
+     *
+     * @param now current time
+     */
+    void advanceTo(LocalDateTime now) {
+        List<Task> fired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(minuteOf(now), fired);
+            for (Task t : fired) {
+                timers.remove(t);
+            }
+        }
+        for (Task t : fired) {
+            sink.accept(describe(t, now));
+        }
+    }
+
+    /** Returns the number of reminders still waiting. */
+    synchronized int pending() {
+        return wheel.size();
+    }
+
+    @Override
+    public synchronized void added(int idx, Task t) {
+        track(t);
+    }
+
+    @Override
+    public synchronized void removed(int[] ascending, Task[] removed) {
+        for (Task t : removed) {
+            untrack(t);
+        }
+    }
+
+    @Override
+    public synchronized void replaced(int[] ascending, Task[] previous, Task[] replacements) {
+        for (int i = 0; i < previous.length; i++) {
+            untrack(previous[i]);
+            track(replacements[i]);
+        }
+    }
+
+    @Override
+    public synchronized void reset(List<Task> snapshot) {
+        wheel.clear();
+        timers.clear();
+        for (Task t : snapshot) {
+            track(t);
+        }
+    }
+
+    /** Stops the clock thread; pending reminders are dropped. */
+    @Override
+    public void close() {
+        if (clock != null) {
+            clock.shutdownNow();
+        }
+    }
+
+    private void track(Task t) {
+        LocalDateTime at = timeOf(t);
+        if (at == null || t.status == Status.DONE) {
+            return;
+        }
+        long atMinute = minuteOf(at);
+        if (atMinute <= wheel.now()) {
+            return;
+        }
+        timers.put(t, wheel.schedule(atMinute - leadMinutes, t));
+    }
+
+    private void untrack(Task t) {
+        wheel.cancel(timers.remove(t));
+    }
+
+    /** Returns when a task happens: a deadline's due time or an event's start, else {@code null}. */
+    private static LocalDateTime timeOf(Task t) {
+        if (t instanceof Deadline) {
+            return ((Deadline) t).getDueDate();
+        }
+        if (t instanceof Event) {
+            return ((Event) t).getFromDate();
+        }
+        return null;
+    }
+
+    private static String describe(Task t, LocalDateTime now) {
+        LocalDateTime at = timeOf(t);
+        long minutes = Math.max(0, minuteOf(at) - minuteOf(now));
+        String verb = t instanceof Event ? "starts" : "is due";
+        return "Reminder: \"" + t.description + "\" " + verb + " " + DateTimeUtil.pretty(at)
+                + (minutes == 0 ? " (now)." : " (in " + minutes + " min).");
+    }
+
+    private static long minuteOf(LocalDateTime ldt) {
+        return Math.floorDiv(ldt.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
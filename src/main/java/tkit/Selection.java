@@ -0,0 +1,119 @@
+package tkit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Resolves the argument of {@code mark}, {@code unmark} and {@code delete} into list positions.
+ * Accepted forms:
+ *   {@code N}, {@code N-M} and any mix of them separated by commas and/or whitespace (1-based, inclusive)
+ *   {@code done} / {@code undone}: tasks with that status
+ *   {@code all}: every task
+ *   {@code before DATE}: deadlines due, and events ending, before the start of {@code DATE}; todos never match
+ * Positions are collected in a bit set over the list, so a selection costs O(n) however it is written.
+ */
+final class Selection {
+
+    private Selection() { }
+
+    /**
+     * Resolves a selection against the current list.
+     *
+     * @param arg raw command argument; must not be blank
+     * @param tasks current list
+     * @return unique zero-based positions in strictly ascending order; empty if a predicate matched nothing
+     * @throws TkitException if the argument is malformed or names positions outside the list
+     */
+    static int[] resolve(String arg, List<Task> tasks) throws TkitException {
+        assert tasks != null : "resolve(): tasks must not be null";
+        String s = arg == null ? "" : arg.trim();
+        assert !s.isEmpty() : "resolve(): argument pre-validated to be non-empty";
+        String[] words = s.split("\\s+", 2);
+        switch (words[0].toLowerCase()) {
+        case "all":
+            return matching(tasks, t -> true);
+        case "done":
+            return matching(tasks, t -> t.status == Status.DONE);
+        case "undone":
+            return matching(tasks, t -> t.status != Status.DONE);
+        case "before": {
+            LocalDate date = DateTimeUtil.tryParseToLocalDate(words.length > 1 ? words[1].trim() : "");
+            if (date == null) {
+                throw new TkitException("Unrecognized date.\nUse: before <DATE>, e.g. delete before 2024-01-01");
+            }
+            LocalDateTime cutoff = date.atStartOfDay();
+            return matching(tasks, t -> endsBefore(t, cutoff));
+        }
+        default:
+            return positions(s, tasks.size());
+        }
+    }
+
+    private static boolean endsBefore(Task t, LocalDateTime cutoff) {
+        if (t instanceof Deadline) {
+            return ((Deadline) t).getDueDate().isBefore(cutoff);
+        }
+        if (t instanceof Event) {
+            return ((Event) t).getToDate().isBefore(cutoff);
+        }
+        return false;
+    }
+
+    private static int[] matching(List<Task> tasks, Predicate<Task> predicate) {
+        BitSet hits = new BitSet(tasks.size());
+        int i = 0;
+        for (Task t : tasks) {
+            if (predicate.test(t)) {
+                hits.set(i);
+            }
+            i++;
+        }
+        return hits.stream().toArray();
+    }
+
+    /** Parses numbers and ranges, reporting every token that falls outside the list. */
+    private static int[] positions(String s, int size) throws TkitException {
+        String[] tokens = s.replaceAll("(\\d)\\s*-\\s*(\\d)", "$1-$2").split("[,\\s]+");
+        BitSet hits = new BitSet(size);
+        List<String> missing = new ArrayList<>();
+        for (String tok : tokens) {
+            if (tok.isBlank()) {
+                continue;
+            }
+            int dash = tok.indexOf('-', 1);
+            int from = parseNumber(dash < 0 ? tok : tok.substring(0, dash), tok);
+            int to = dash < 0 ? from : parseNumber(tok.substring(dash + 1), tok);
+            int low = Math.min(from, to);
+            int high = Math.max(from, to);
+            if (low < 1 || high > size) {
+                missing.add(tok);
+                continue;
+            }
+            hits.set(low - 1, high);
+        }
+        if (tokens.length == 1 && missing.size() == 1 && tokens[0].indexOf('-', 1) < 0) {
+            throw new TkitException("Invalid task number: " + tokens[0] + ". List has " + size + " task(s).");
+        }
+        if (!missing.isEmpty()) {
+            throw new TkitException("These task number(s) do not exist: " + String.join(", ", missing)
+                    + ". List has " + size + " task(s); no tasks were changed.");
+        }
+        if (hits.isEmpty()) {
+            throw new TkitException("Expected task numbers or ranges such as 1-5,"
+                    + " or one of done | undone | all | before <DATE>.");
+        }
+        return hits.stream().toArray();
+    }
+
+    private static int parseNumber(String digits, String token) throws TkitException {
+        try {
+            return Integer.parseInt(digits.trim());
+        } catch (NumberFormatException e) {
+            throw new TkitException("Task number must be of type int. Received: \"" + token + "\"");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package tkit;
+
+/**
+ * On-disk encoding used when {@link Storage} writes a snapshot.
+ * Selected with the {@code tkit.format} system property ({@code text} or {@code binary}).
+ * Loading does not depend on this setting: the format is detected from the file header.
+ */
+enum SnapshotFormat {
+    /** Pipe-delimited, human-readable lines. */
+    TEXT("text"),
+    /** Compact versioned binary records; see {@link BinarySnapshotCodec}. */
+    BINARY("binary");
+
+    /** System property consulted by {@link #fromConfig()}. */
+    static final String PROPERTY = "tkit.format";
+
+    private final String keyword;
+
+    SnapshotFormat(String keyword) {
+        assert keyword != null && !keyword.isBlank() : "SnapshotFormat keyword must not be blank";
+        this.keyword = keyword;
+    }
+
+    /** Returns the configuration keyword for this format. */
+    public String keyword() {
+        return keyword;
+    }
+
+    /**
+     * Maps a configuration keyword to a format.
+     *
+     * @param keyword format name (case-insensitive); may be {@code null}
+     * @return matching format, or {@link #TEXT} if unknown
+     */
+    static SnapshotFormat fromKeyword(String keyword) {
+        String s = keyword == null ? "" : keyword.trim().toLowerCase();
+        for (SnapshotFormat f : values()) {
+            if (f.keyword.equals(s)) {
+                return f;
+            }
+        }
+        return TEXT;
+    }
+
+    /** Returns the format selected by the {@code tkit.format} system property. */
+    static SnapshotFormat fromConfig() {
+        return fromKeyword(System.getProperty(PROPERTY));
+    }
+}
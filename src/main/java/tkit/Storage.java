@@ -3,11 +3,16 @@ package tkit;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,30 +28,216 @@ import java.util.List;
  *   {@code \|} represents a literal pipe within a field
  *   {@code \\} represents a literal backslash
  * Corrupted lines are skipped without aborting, but counted for diagnostics.
+ * Journal mode:
+ *   Single mutations are appended to a {@link Journal} next to the snapshot instead of rewriting it.
+ *   Once the journal passes a size threshold, the next mutation writes a fresh snapshot instead.
+ *   Every snapshot carries a generation number so that a journal left over from an older snapshot is ignored.
+ * Large snapshots are read in chunks and decoded in parallel by {@link ChunkedSnapshotReader}.
+ * Snapshots may instead be written in the {@link BinarySnapshotCodec} format (see {@link SnapshotFormat});
+ * on load the format is detected from the file's leading magic bytes, so either can be read at any time.
+ * Write-behind:
+ *   All file writes run on a {@link WriteBehindSaver} thread; {@link #flush()} waits for them to finish.
+ *   The {@link Durability} level decides whether and when writes are forced to disk.
  */
 final class Storage {
 
     /** Line prefix used for user-readable comments in temp writes. */
     private static final String HEADER_PREFIX = "#";
 
+    /** Comment tag carrying the snapshot generation. */
+    private static final String GENERATION_TAG = HEADER_PREFIX + " gen ";
+
+    /** Journal size in bytes beyond which it is compacted into the snapshot. */
+    static final long DEFAULT_COMPACT_THRESHOLD = 1L << 20;
+
+    /** Most fields a line can carry (events: type, done, description, from, to); extras are ignored. */
+    private static final int MAX_FIELDS = 5;
+
+    /** Snapshot size in bytes from which it is read in chunks and decoded in parallel. */
+    static final long PARALLEL_LOAD_THRESHOLD = 4L << 20;
+
+    /** Edits touching more tasks than this are persisted as one snapshot instead of journal records. */
+    static final int BULK_SNAPSHOT_THRESHOLD = 64;
+
     /** Relative, OS-independent data file path. */
-    private final Path dataFile = Path.of("data", "Tkit.txt");
+    private final Path dataFile;
+
+    /** Journal size in bytes that triggers a compaction. */
+    private final long compactThreshold;
+
+    /** Encoding used for snapshots written by this instance. */
+    private final SnapshotFormat format;
+
+    /** Background writer; every file write goes through it. */
+    private final WriteBehindSaver saver;
+
+    /** Approximate journal size as seen by the caller, including records still queued. */
+    private long journalBytes;
+
+    /** Set by the writer thread when a journal write fails, so the next mutation saves a snapshot instead. */
+    private volatile boolean isJournalBroken;
+
+    /**
+     * Set by the writer thread when the files on disk may no longer match the list the caller holds: a snapshot
+     * or journal write failed. Records are dropped while set, since their positions would replay against the
+     * wrong base; the next successful snapshot clears it. Touched only by the writer thread after {@link #load()}.
+     */
+    private boolean isJournalStale;
+
+    /** Journal being appended to; touched only by the writer thread after {@link #load()}. */
+    private Journal journal;
+
+    /** Generation of the snapshot the journal applies on; touched only by the writer thread after {@link #load()}. */
+    private long generation;
+
+    /** While set, records are not written; they only mark the list as needing a {@link #checkpoint(List)}. */
+    private boolean isDeferred;
+
+    /** True if a record was deferred since the last snapshot. */
+    private boolean isDirty;
+
+    /** Creates storage at the default {@code data/Tkit.txt} location with the configured durability and format. */
+    Storage() {
+        this(Path.of("data", "Tkit.txt"), DEFAULT_COMPACT_THRESHOLD, Durability.fromConfig(),
+                SnapshotFormat.fromConfig());
+    }
+
+    /**
+     * Creates storage at the given location with batched durability.
+     *
+     * @param dataFile snapshot file; the journal lives next to it
+     * @param compactThreshold journal size in bytes that triggers a compaction; {@code 0} compacts on every mutation
+     */
+    Storage(Path dataFile, long compactThreshold) {
+        this(dataFile, compactThreshold, Durability.BATCHED);
+    }
+
+    /**
+     * Creates storage at the given location writing text snapshots.
+     *
+     * @param dataFile snapshot file; the journal lives next to it
+     * @param compactThreshold journal size in bytes that triggers a compaction; {@code 0} compacts on every mutation
+     * @param durability how often writes are forced to disk
+     */
+    Storage(Path dataFile, long compactThreshold, Durability durability) {
+        this(dataFile, compactThreshold, durability, SnapshotFormat.TEXT);
+    }
+
+    /**
+     * Creates storage at the given location.
+     *
+     * @param dataFile snapshot file; the journal lives next to it
+     * @param compactThreshold journal size in bytes that triggers a compaction; {@code 0} compacts on every mutation
+     * @param durability how often writes are forced to disk
+     * @param format encoding used for snapshots written from now on
+     */
+    Storage(Path dataFile, long compactThreshold, Durability durability, SnapshotFormat format) {
+        assert dataFile != null : "Storage(): dataFile must not be null";
+        assert compactThreshold >= 0 : "Storage(): compactThreshold must be non-negative";
+        assert format != null : "Storage(): format must not be null";
+        this.dataFile = dataFile;
+        this.compactThreshold = compactThreshold;
+        this.format = format;
+        this.saver = new WriteBehindSaver(new WriteBehindSaver.Sink() {
+            @Override
+            public void writeSnapshot(List<Task> tasks, boolean isSynced) {
+                writeSnapshotNow(tasks, isSynced);
+            }
+
+            @Override
+            public void appendRecords(List<String> records, boolean isSynced) {
+                appendRecordsNow(records, isSynced);
+            }
+        }, durability);
+    }
 
     /**
      * Loads tasks from disk. Creates parent directory if missing; ignores corrupted lines.
+     * Replays any journal written on top of the snapshot. Pending background writes are flushed first.
      *
      * @return list of tasks parsed from the data file
      */
     public List<Task> load() {
+        flush();
         ensureParentDir();
-
-        if (!Files.exists(dataFile)) {
-            return new ArrayList<>();
-        }
+        closeJournal();
 
         List<Task> loaded = new ArrayList<>();
         int corruptedCount = 0;
+        long gen = 0;
+
+        if (Files.exists(dataFile)) {
+            corruptedCount = readSnapshot(loaded);
+            if (corruptedCount < 0) {
+                return new ArrayList<>();
+            }
+            gen = readGeneration();
+        }
+
+        journalBytes = 0;
+        try {
+            if (Journal.readBase(journalFile()) == gen) {
+                corruptedCount += Journal.replay(journalFile(), loaded, this::decodeLine);
+                journalBytes = Files.size(journalFile());
+            }
+        } catch (IOException io) {
+            corruptedCount++;
+        }
+        generation = gen;
+        isJournalBroken = false;
+
+        if (corruptedCount > 0) {
+            System.out.println("____________________\n");
+            System.out.println("Warning: "
+                    + corruptedCount
+                    + " corrupted line(s) ignored while loading.");
+            System.out.println("____________________\n");
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Converts a data file, including any journal on top of it, into a snapshot in the given format.
+     * Works in both directions since the source format is detected from its header.
+     *
+     * @param source existing data file in either format
+     * @param target file to write; its journal, if any, becomes stale
+     * @param format format to write
+     */
+    static void convert(Path source, Path target, SnapshotFormat format) {
+        List<Task> tasks = new Storage(source, DEFAULT_COMPACT_THRESHOLD, Durability.NONE).load();
+        Storage out = new Storage(target, DEFAULT_COMPACT_THRESHOLD, Durability.BATCHED, format);
+        out.save(tasks);
+        out.flush();
+    }
 
+    /**
+     * Reads snapshot records into {@code loaded}, in either format.
+     *
+     * @param loaded destination list
+     * @return number of corrupted lines, or {@code -1} if the file could not be read
+     */
+    private int readSnapshot(List<Task> loaded) {
+        try {
+            if (BinarySnapshotCodec.isBinary(readPrefix(BinarySnapshotCodec.MAGIC.length))) {
+                return BinarySnapshotCodec.read(Files.readAllBytes(dataFile), loaded);
+            }
+        } catch (IOException io) {
+            return -1;
+        }
+
+        try {
+            long size = Files.size(dataFile);
+            if (size >= PARALLEL_LOAD_THRESHOLD && size <= Integer.MAX_VALUE) {
+                return ChunkedSnapshotReader.read(dataFile, this::decodeLine, loaded,
+                        ChunkedSnapshotReader.DEFAULT_MIN_CHUNK_BYTES);
+            }
+        } catch (IOException io) {
+            return -1;
+        }
+
+        int corruptedCount = 0;
         try (BufferedReader reader = Files.newBufferedReader(dataFile, StandardCharsets.UTF_8)) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -66,55 +257,322 @@ final class Storage {
                 }
             }
         } catch (IOException io) {
-            return new ArrayList<>();
+            return -1;
         }
+        return corruptedCount;
+    }
 
-        if (corruptedCount > 0) {
-            System.out.println("____________________\n");
-            System.out.println("Warning: "
-                    + corruptedCount
-                    + " corrupted line(s) ignored while loading.");
-            System.out.println("____________________\n");
+    /** Reads the generation tag from the snapshot header; files written before journaling count as 0. */
+    private long readGeneration() {
+        try {
+            byte[] prefix = readPrefix(32);
+            if (BinarySnapshotCodec.isBinary(prefix)) {
+                return BinarySnapshotCodec.readGeneration(prefix);
+            }
+        } catch (IOException io) {
+            return 0;
         }
-
-        return loaded;
+        try (BufferedReader reader = Files.newBufferedReader(dataFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && line.startsWith(HEADER_PREFIX)) {
+                if (line.startsWith(GENERATION_TAG)) {
+                    return Long.parseLong(line.substring(GENERATION_TAG.length()).trim());
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // fall through: treat as an untagged snapshot
+        }
+        return 0;
     }
 
     /**
-     * Persists all tasks to disk. Writes to a temporary file first and then moves it into place atomically
-     * (with a non-atomic fallback) to minimize the risk of partial writes.
+     * Persists all tasks to disk on the background writer. A {@link TaskList#view()} snapshot is handed over
+     * as is; any other list is copied before this method returns, so the caller may keep mutating it.
+     * Back-to-back saves are merged into a single write.
      *
      * @param tasks the current snapshot of tasks to save; must not be {@code null}
      */
-
     public void save(final List<Task> tasks) {
         assert tasks != null : "save(): tasks must not be null";
+        journalBytes = 0;
+        isJournalBroken = false;
+        isDirty = false;
+        saver.submitSnapshot(tasks instanceof IndexedTaskTree.Snapshot ? tasks : List.copyOf(tasks));
+    }
+
+    /**
+     * Switches deferred mode on or off. While deferred, {@code record*} calls write nothing and the
+     * caller persists with {@link #checkpoint(List)}, e.g. once at the end of a batch run.
+     *
+     * @param isDeferred whether to defer records
+     */
+    public void setDeferred(boolean isDeferred) {
+        this.isDeferred = isDeferred;
+    }
+
+    /**
+     * Forgets records deferred since the last snapshot, for when the caller has reverted them in memory.
+     */
+    public void discardDeferred() {
+        isDirty = false;
+    }
+
+    /**
+     * Saves a snapshot if any record was deferred since the last snapshot.
+     *
+     * @param current the current list
+     * @return whether a snapshot was queued
+     */
+    public boolean checkpoint(List<Task> current) {
+        if (!isDirty) {
+            return false;
+        }
+        save(current);
+        return true;
+    }
+
+    /**
+     * Blocks until every save and record submitted so far has been written.
+     * Called before exit so that no queued write is lost.
+     */
+    public void flush() {
+        saver.flush();
+    }
+
+    /**
+     * Writes everything still queued, stops the writer thread and closes the journal.
+     * Used when a workspace is evicted; the instance must not be used afterwards.
+     */
+    public void close() {
+        saver.close();
+        // the writer thread has exited, so the journal may now be closed from this thread
+        closeJournal();
+    }
+
+    /**
+     * Records that {@code t} was appended to the list.
+     *
+     * @param t task that was added
+     * @param current list after the mutation, used if a compaction is triggered
+     */
+    public void recordAdd(Task t, List<Task> current) {
+        record(Journal.ADD + " " + encodeTask(t), current);
+    }
+
+    /**
+     * Records that {@code t} was inserted so that it now sits at {@code idx}.
+     *
+     * @param idx zero-based index of the inserted task
+     * @param t task that was inserted
+     * @param current list after the mutation, used if a compaction is triggered
+     */
+    public void recordInsert(int idx, Task t, List<Task> current) {
+        record(Journal.INSERT + " " + idx + " " + encodeTask(t), current);
+    }
+
+    /**
+     * Records that the task at {@code idx} was marked as done.
+     *
+     * @param idx zero-based index
+     * @param current list after the mutation, used if a compaction is triggered
+     */
+    public void recordMark(int idx, List<Task> current) {
+        record(Journal.MARK + " " + idx, current);
+    }
+
+    /**
+     * Records that the task at {@code idx} was marked as not done.
+     *
+     * @param idx zero-based index
+     * @param current list after the mutation, used if a compaction is triggered
+     */
+    public void recordUnmark(int idx, List<Task> current) {
+        record(Journal.UNMARK + " " + idx, current);
+    }
+
+    /**
+     * Records that the tasks at the given indices were removed.
+     *
+     * @param zeroBasedDescending unique indices in strictly descending order, as passed to the list
+     * @param current list after the mutation, used if a compaction is triggered
+     */
+    public void recordDelete(List<Integer> zeroBasedDescending, List<Task> current) {
+        assert zeroBasedDescending != null && !zeroBasedDescending.isEmpty() : "recordDelete(): no indices";
+        if (zeroBasedDescending.size() > BULK_SNAPSHOT_THRESHOLD) {
+            recordBulk(current);
+            return;
+        }
+        StringBuilder sb = new StringBuilder().append(Journal.DELETE);
+        for (int idx : zeroBasedDescending) {
+            sb.append(' ').append(idx);
+        }
+        record(sb.toString(), current);
+    }
+
+    /**
+     * Records that the tasks at the given indices were all given {@code status}.
+     * Past {@link #BULK_SNAPSHOT_THRESHOLD} tasks this is a single snapshot rather than one record per task.
+     *
+     * @param ascending zero-based indices whose status changed
+     * @param status the new status
+     * @param current list after the mutation
+     */
+    public void recordStatusAll(int[] ascending, Status status, List<Task> current) {
+        if (ascending.length > BULK_SNAPSHOT_THRESHOLD) {
+            recordBulk(current);
+            return;
+        }
+        for (int idx : ascending) {
+            if (status == Status.DONE) {
+                recordMark(idx, current);
+            } else {
+                recordUnmark(idx, current);
+            }
+        }
+    }
 
+    /**
+     * Persists an edit too large to journal task by task as one snapshot, or only marks the list dirty while
+     * deferred. Callers use it past {@link #BULK_SNAPSHOT_THRESHOLD} tasks.
+     *
+     * @param current list after the edit
+     */
+    public void recordBulk(List<Task> current) {
+        if (isDeferred) {
+            isDirty = true;
+            return;
+        }
+        save(current);
+    }
+
+    /**
+     * Queues a journal record, or a full snapshot once the journal has grown past the threshold
+     * (or the last journal write failed). The snapshot already contains the mutation being recorded.
+     */
+    private void record(String entry, List<Task> current) {
+        assert current != null : "record(): current must not be null";
+        if (isDeferred) {
+            isDirty = true;
+            return;
+        }
+        journalBytes += entry.length() + 1;
+        if (journalBytes > compactThreshold || isJournalBroken) {
+            save(current);
+            return;
+        }
+        saver.submitRecord(entry);
+    }
+
+    /** Writer-thread half of {@link #save(List)}: writes the snapshot, then starts an empty journal on top. */
+    private void writeSnapshotNow(List<Task> tasks, boolean isSynced) {
         ensureParentDir();
         final Path tmp = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        final long nextGeneration = generation + 1;
 
-        if (!writeSnapshot(tmp, tasks)) {
+        boolean isSaved = false;
+        try {
+            isSaved = writeSnapshot(tmp, tasks, nextGeneration, isSynced) && finalizeSave(tmp);
+        } finally {
+            if (!isSaved) {
+                // the change that prompted this snapshot is only in memory; records must not build on the old journal
+                isJournalStale = true;
+                isJournalBroken = true;
+            }
+        }
+        if (!isSaved) {
             return;
         }
+        isJournalStale = false;
+
+        // The new snapshot supersedes the old journal; it is stale from here on.
+        closeJournal();
+        generation = nextGeneration;
+        try {
+            Files.deleteIfExists(journalFile());
+        } catch (IOException ignored) {
+            // intentional no-op: a stale journal is ignored on load because its base no longer matches
+        }
+    }
+
+    /** Writer-thread half of {@link #record(String, List)}: appends a group of records. */
+    private void appendRecordsNow(List<String> records, boolean isSynced) {
+        if (isJournalStale) {
+            // the caller's next mutation saves a full snapshot, which already contains these records
+            isJournalBroken = true;
+            return;
+        }
+        ensureParentDir();
+        boolean isAppended = false;
+        try {
+            if (journal == null || !journal.isOpen()) {
+                journal = new Journal(journalFile());
+                journal.open(generation, true);
+            }
+            journal.append(records, isSynced);
+            isAppended = true;
+        } catch (IOException io) {
+            System.out.println("____________________\n");
+            System.out.println("Warning: failed to write journal: " + io.getMessage());
+            System.out.println("____________________\n");
+        } finally {
+            if (!isAppended) {
+                // a partly written group leaves the journal unusable as a base for later records
+                closeJournal();
+                isJournalStale = true;
+                isJournalBroken = true;
+            }
+        }
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /** Reads up to {@code n} leading bytes of the data file. */
+    private byte[] readPrefix(int n) throws IOException {
+        try (InputStream in = Files.newInputStream(dataFile)) {
+            return in.readNBytes(n);
+        }
+    }
 
-        finalizeSave(tmp);
+    private Path journalFile() {
+        return dataFile.resolveSibling(dataFile.getFileName() + ".journal");
     }
 
     /**
-     * Writes a header and all tasks to the given temporary file using UTF-8 encoding.
+     * Writes a header and all tasks to the given temporary file, as UTF-8 text or in the binary format.
      * Logs a warning and returns {@code false} on failure; otherwise returns {@code true}.
      *
      * @param tmp   the path to the temporary file that will hold the snapshot
      * @param tasks the tasks to be serialized into the file
+     * @param gen   generation number recorded in the header
+     * @param isSynced whether to force the file to disk before returning
      * @return {@code true} if the snapshot was written successfully; {@code false} otherwise
      */
-    private boolean writeSnapshot(final Path tmp, final List<Task> tasks) {
-        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
-            writer.write(HEADER_PREFIX + " Tkit save @ " + LocalDateTime.now());
-            writer.newLine();
-            for (Task t : tasks) {
-                writer.write(encodeTask(t));
+    private boolean writeSnapshot(final Path tmp, final List<Task> tasks, final long gen, final boolean isSynced) {
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == SnapshotFormat.BINARY) {
+                OutputStream out = Channels.newOutputStream(channel);
+                BinarySnapshotCodec.write(out, tasks, gen);
+                out.flush();
+            } else {
+                BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+                writer.write(HEADER_PREFIX + " Tkit save @ " + LocalDateTime.now());
+                writer.newLine();
+                writer.write(GENERATION_TAG + gen);
                 writer.newLine();
+                for (Task t : tasks) {
+                    writer.write(encodeTask(t));
+                    writer.newLine();
+                }
+                writer.flush();
+            }
+            if (isSynced) {
+                channel.force(true);
             }
             return true;
         } catch (IOException io) {
@@ -130,8 +588,9 @@ final class Storage {
      * if the filesystem does not support it, falls back to a non-atomic replace. Logs warnings on failure.
      *
      * @param tmp the path to the temporary file to move into place
+     * @return {@code true} if the snapshot is now in place; {@code false} otherwise
      */
-    private void finalizeSave(final Path tmp) {
+    private boolean finalizeSave(final Path tmp) {
         try {
             Files.move(
                     tmp,
@@ -139,18 +598,22 @@ final class Storage {
                     StandardCopyOption.REPLACE_EXISTING,
                     StandardCopyOption.ATOMIC_MOVE
             );
+            return true;
         } catch (AtomicMoveNotSupportedException am) {
             try {
                 Files.move(tmp, dataFile, StandardCopyOption.REPLACE_EXISTING);
+                return true;
             } catch (IOException io) {
                 System.out.println("____________________\n");
                 System.out.println("Warning: failed to finalize data file: " + io.getMessage());
                 System.out.println("____________________\n");
+                return false;
             }
         } catch (IOException io) {
             System.out.println("____________________\n");
             System.out.println("Warning: failed to finalize data file: " + io.getMessage());
             System.out.println("____________________\n");
+            return false;
         }
     }
 
@@ -170,7 +633,7 @@ final class Storage {
     }
 
     /** Serializes a task into a single line. */
-    private String encodeTask(Task t) {
+    String encodeTask(Task t) {
         assert t != null : "encodeTask(): task is null";
         assert t.type != null && t.status != null
                 && t.description != null : "encodeTask(): fields must be non-null";
@@ -201,79 +664,146 @@ final class Storage {
     }
 
     /**
-     * Deserializes a line into a task.
+     * Deserializes a line into a task in a single pass. Field boundaries and escapes are resolved together;
+     * the only String created is the description, and dates are parsed straight from their character range.
      *
      * @param line encoded line
      * @return constructed task or {@code null} if corrupted
      */
-    private Task decodeLine(String line) {
+    Task decodeLine(String line) {
         assert line != null && !line.isBlank() : "decodeLine(): empty line";
-        List<String> rawFields = splitPreservingEscapes(line);
-        if (rawFields.size() < 3) {
+
+        // bounds[2k] and bounds[2k + 1] delimit raw field k; bit k of escapedFields marks a backslash inside it.
+        int[] bounds = new int[2 * MAX_FIELDS];
+        int fieldCount = 0;
+        int escapedFields = 0;
+        int fieldStart = 0;
+        boolean isEscaping = false;
+        for (int i = 0, n = line.length(); i <= n; i++) {
+            if (i < n) {
+                char c = line.charAt(i);
+                if (isEscaping) {
+                    isEscaping = false;
+                    continue;
+                }
+                if (c == '\\') {
+                    isEscaping = true;
+                    escapedFields |= 1 << Math.min(fieldCount, MAX_FIELDS);
+                    continue;
+                }
+                if (c != '|') {
+                    continue;
+                }
+            }
+            if (fieldCount < MAX_FIELDS) {
+                bounds[2 * fieldCount] = fieldStart;
+                bounds[2 * fieldCount + 1] = i;
+            }
+            fieldCount++;
+            fieldStart = i + 1;
+        }
+        if (fieldCount < 3 || (escapedFields & 0b11) != 0) {
             return null;
         }
 
-        String type = rawFields.get(0).trim();
-        String done = rawFields.get(1).trim();
-
-        for (int i = 0; i < rawFields.size(); i++) {
-            rawFields.set(i, unescape(rawFields.get(i).trim()));
+        char type = singleChar(line, bounds, 0);
+        char done = singleChar(line, bounds, 1);
+        String description = unescape(line, bounds[4], bounds[5], (escapedFields & 0b100) != 0).trim();
+        if (description.isEmpty()) {
+            return null;
         }
 
-        String description = rawFields.get(2);
         Task task;
-
         switch (type) {
-        case "T":
+        case 'T':
             task = new Todo(description);
             break;
-        case "D":
-            if (rawFields.size() < 4) {
+        case 'D': {
+            if (fieldCount < 4) {
                 return null;
             }
-            LocalDateTime by = DateTimeUtil.tryParseStorageOrInput(rawFields.get(3));
+            LocalDateTime by = parseDateField(line, bounds, 3, escapedFields);
             if (by == null) {
                 return null;
             }
             task = new Deadline(description, by);
             break;
-        case "E":
-            if (rawFields.size() < 5) {
+        }
+        case 'E': {
+            if (fieldCount < 5) {
                 return null;
             }
-            LocalDateTime from = DateTimeUtil.tryParseStorageOrInput(rawFields.get(3));
-            LocalDateTime to = DateTimeUtil.tryParseStorageOrInput(rawFields.get(4));
+            LocalDateTime from = parseDateField(line, bounds, 3, escapedFields);
+            LocalDateTime to = parseDateField(line, bounds, 4, escapedFields);
             if (from == null || to == null) {
                 return null;
             }
             task = new Event(description, from, to);
             break;
+        }
         default:
             return null;
         }
 
-        if ("1".equals(done)) {
+        if (done == '1') {
             task.markAsDone();
-        } else if (!"0".equals(done)) {
+        } else if (done != '0') {
             return null;
         }
 
         return task;
     }
 
+    /** Returns the only non-blank character of a field, or {@code '\0'} if it is not exactly one character. */
+    private static char singleChar(String line, int[] bounds, int field) {
+        int start = skipSpaces(line, bounds[2 * field], bounds[2 * field + 1]);
+        int end = trimSpaces(line, start, bounds[2 * field + 1]);
+        return end - start == 1 ? line.charAt(start) : '\0';
+    }
+
+    /** Parses a date field in place; escaped fields are rare and go through an unescaped copy. */
+    private static LocalDateTime parseDateField(String line, int[] bounds, int field, int escapedFields) {
+        int start = bounds[2 * field];
+        int end = bounds[2 * field + 1];
+        if ((escapedFields & (1 << field)) != 0) {
+            return DateTimeUtil.tryParseStorageOrInput(unescape(line, start, end, true));
+        }
+        return DateTimeUtil.tryParseStorageOrInput(line, skipSpaces(line, start, end), trimSpaces(line, start, end));
+    }
+
+    private static int skipSpaces(String s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimSpaces(String s, int start, int end) {
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
     /** Escapes literal backslashes and pipes within a field. */
     private static String escape(String s) {
         assert s != null : "escape(): null";
         return s.replace("\\", "\\\\").replace("|", "\\|");
     }
 
-    /** Reverses {@link #escape(String)} on a field. */
-    private static String unescape(String s) {
-        assert s != null : "unescape(): null";
-        StringBuilder out = new StringBuilder();
+    /**
+     * Reverses {@link #escape(String)} on {@code line[start, end)}: a backslash makes the next character literal.
+     * A trailing lone backslash is kept as is.
+     */
+    private static String unescape(String line, int start, int end, boolean hasEscapes) {
+        assert line != null : "unescape(): null";
+        if (!hasEscapes) {
+            return line.substring(start, end);
+        }
+        StringBuilder out = new StringBuilder(end - start);
         boolean isEscaping = false;
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
             if (isEscaping) {
                 out.append(c);
                 isEscaping = false;
@@ -288,37 +818,4 @@ final class Storage {
         }
         return out.toString();
     }
-
-    /** Splits a line by unescaped {@code |}, preserving escaped separators. */
-    private static List<String> splitPreservingEscapes(String line) {
-        assert line != null : "splitPreservingEscapes(): null";
-        List<String> fields = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        boolean isEscaping = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (isEscaping) {
-                current.append(c);
-                isEscaping = false;
-                continue;
-            }
-
-            if (c == '\\') {
-                isEscaping = true;
-                continue;
-            }
-
-            if (c == '|') {
-                fields.add(current.toString());
-                current.setLength(0);
-                continue;
-            }
-
-            current.append(c);
-        }
-        fields.add(current.toString());
-        return fields;
-    }
 }
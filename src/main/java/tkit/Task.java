@@ -5,6 +5,9 @@ abstract class Task {
     protected final String description;
     protected Status status;
     protected final TaskType type;
+    private String lowerDescription;
+    /** Cached {@link #toString()} result; cleared whenever the status changes in place. */
+    private String rendered;
 
     /**
      * Constructs a task with a type and description.
@@ -20,16 +23,39 @@ abstract class Task {
         this.status = Status.NOT_DONE;
     }
 
+    /**
+     * Returns this task with the given status, copying it if the status differs.
+     * {@link TaskList} uses this instead of mutating, so snapshots of the list never see a status change.
+     *
+     * @param newStatus status of the returned task
+     * @return this task if it already has {@code newStatus}, otherwise an updated copy
+     */
+    Task withStatus(Status newStatus) {
+        assert newStatus != null : "withStatus(): status must not be null";
+        if (status == newStatus) {
+            return this;
+        }
+        Task copy = copy();
+        copy.status = newStatus;
+        copy.lowerDescription = lowerDescription;
+        return copy;
+    }
+
+    /** Returns a new task of the same type with the same description and dates, not yet done. */
+    protected abstract Task copy();
+
     /** Marks this task as done. */
     public void markAsDone() {
         assert this.status != null : "Status must be initialized";
         this.status = Status.DONE;
+        this.rendered = null;
     }
 
     /** Marks this task as not done. */
     public void markAsUndone() {
         assert this.status != null : "Status must be initialized";
         this.status = Status.NOT_DONE;
+        this.rendered = null;
     }
 
     /**
@@ -46,12 +72,33 @@ abstract class Task {
         if (matchingKeyword.isEmpty()) {
             return false;
         }
-        return this.description.toLowerCase().contains(matchingKeyword.toLowerCase());
+        return lowerDescription().contains(matchingKeyword.toLowerCase());
     }
 
-    /** Renders as {@code [Type][State] Description}. */
+    /** Returns the lower-cased description, computed once and reused by keyword search. */
+    String lowerDescription() {
+        if (lowerDescription == null) {
+            lowerDescription = description.toLowerCase();
+        }
+        return lowerDescription;
+    }
+
+    /**
+     * Returns the rendered form, built by {@link #render()} on first use and reused until the status changes.
+     * Descriptions and dates never change, so listing a mostly unchanged list re-renders almost nothing.
+     */
     @Override
-    public String toString() {
+    public final String toString() {
+        String r = rendered;
+        if (r == null) {
+            r = render();
+            rendered = r;
+        }
+        return r;
+    }
+
+    /** Renders as {@code [Type][State] Description}; subclasses append their dates. */
+    protected String render() {
         assert type != null && status != null && description != null;
         return "[" + type.tag() + "][" + status.stateIcon() + "] " + description;
     }
@@ -0,0 +1,86 @@
+package tkit;
+
+import java.util.List;
+
+/**
+ * Immutable description of one change to a {@link TaskList}, as delivered by {@link TaskEventPublisher}.
+ * Kinds:
+ *   {@link Added}: one task appended or inserted
+ *   {@link Removed}: one task deleted
+ *   {@link BulkRemoved}: several tasks deleted by one command
+ *   {@link StatusChanged}: tasks replaced by copies with a new status
+ *   {@link Reset}: the whole list, sent when a subscriber starts, after a workspace switch, and after a
+ *   subscriber fell so far behind that events were dropped for it
+ * Positions are zero-based and refer to the list as it was just before the event.
+ */
+abstract class TaskEvent {
+
+    private TaskEvent() { }
+
+    /** One task now sits at {@code index}. */
+    static final class Added extends TaskEvent {
+        final int index;
+        final Task task;
+
+        Added(int index, Task task) {
+            assert task != null : "Added(): task must not be null";
+            this.index = index;
+            this.task = task;
+        }
+    }
+
+    /** The task at {@code index} was removed. */
+    static final class Removed extends TaskEvent {
+        final int index;
+
+        Removed(int index) {
+            this.index = index;
+        }
+    }
+
+    /** The tasks at {@code ascending} were removed together. */
+    static final class BulkRemoved extends TaskEvent {
+        private final int[] ascending;
+
+        BulkRemoved(int[] ascending) {
+            this.ascending = ascending.clone();
+        }
+
+        /** Returns the removed positions, strictly ascending. */
+        int[] positions() {
+            return ascending.clone();
+        }
+    }
+
+    /** The tasks at {@code ascending} were replaced by {@code replacements}, which carry the new status. */
+    static final class StatusChanged extends TaskEvent {
+        private final int[] ascending;
+        private final Task[] replacements;
+
+        StatusChanged(int[] ascending, Task[] replacements) {
+            assert ascending.length == replacements.length : "StatusChanged(): one task per position";
+            this.ascending = ascending.clone();
+            this.replacements = replacements.clone();
+        }
+
+        /** Returns the changed positions, strictly ascending. */
+        int[] positions() {
+            return ascending.clone();
+        }
+
+        /** Returns the new tasks, matching {@link #positions()}. */
+        Task[] replacements() {
+            return replacements.clone();
+        }
+    }
+
+    /** The list now holds exactly {@code tasks}; anything derived from earlier events should be rebuilt. */
+    static final class Reset extends TaskEvent {
+        final List<Task> tasks;
+
+        Reset(List<Task> tasks) {
+            assert tasks != null : "Reset(): tasks must not be null";
+            this.tasks = tasks;
+        }
+    }
+}
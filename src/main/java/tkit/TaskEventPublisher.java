@@ -0,0 +1,147 @@
+package tkit;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Turns {@link TaskList} change callbacks into a {@link Flow.Publisher} of {@link TaskEvent}s, so that
+ * consumers run on their own threads instead of inside the command that made the change.
+ * Responsibilities:
+ *   Translate each callback into one typed event; a removal of one task is {@link TaskEvent.Removed}, of
+ *   several a {@link TaskEvent.BulkRemoved}
+ *   Deliver through a {@link SubmissionPublisher}: every subscriber has a bounded buffer and receives only what
+ *   it has asked for with {@link Flow.Subscription#request(long)}
+ *   Never make the command thread wait: when a subscriber's buffer is full, drop the event and have a delivery
+ *   thread retry a {@link TaskEvent.Reset} until it has room; changes made meanwhile only refresh that reset
+ * Callbacks arrive on the thread that edits the list; offers from it and from the resync retry go through this
+ * object's lock, so a subscriber never sees an event older than a reset it has already received.
+ */
+final class TaskEventPublisher implements TaskList.ChangeListener, Flow.Publisher<TaskEvent>, AutoCloseable {
+
+    /** Events a subscriber may have outstanding before further events are dropped for it. */
+    static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+    /** Pause between attempts to deliver a resync to a subscriber whose buffer is still full. */
+    static final long RESYNC_RETRY_MILLIS = 10;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Supplier<List<Task>> source;
+    private final ExecutorService deliveries = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "tkit-events-" + THREAD_COUNT.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private final SubmissionPublisher<TaskEvent> publisher;
+    /** List to send as a reset once every subscriber has room, or {@code null} when none is owed. */
+    private List<Task> resync;
+
+    /**
+     * Creates a publisher with the default buffer size.
+     *
+     * @param source returns the current list contents; used for {@link TaskEvent.Reset} events
+     */
+    TaskEventPublisher(Supplier<List<Task>> source) {
+        this(source, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Creates a publisher.
+     *
+     * @param source returns the current list contents; used for {@link TaskEvent.Reset} events
+     * @param bufferCapacity events buffered per subscriber, rounded up to a power of two
+     */
+    TaskEventPublisher(Supplier<List<Task>> source, int bufferCapacity) {
+        assert source != null : "TaskEventPublisher(): source must not be null";
+        assert bufferCapacity > 0 : "TaskEventPublisher(): buffer capacity must be positive";
+        this.source = source;
+        this.publisher = new SubmissionPublisher<>(deliveries, bufferCapacity);
+    }
+
+    /**
+     * Adds a subscriber and sends every subscriber a {@link TaskEvent.Reset} of the current list, so the new
+     * one has a starting point. Call on the thread that edits the list, so no change slips in between.
+     *
+     * @param subscriber subscriber to add
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super TaskEvent> subscriber) {
+        publisher.subscribe(subscriber);
+        reset(source.get());
+    }
+
+    @Override
+    public void added(int idx, Task t) {
+        publish(new TaskEvent.Added(idx, t));
+    }
+
+    @Override
+    public void removed(int[] ascending, Task[] removed) {
+        publish(ascending.length == 1 ? new TaskEvent.Removed(ascending[0]) : new TaskEvent.BulkRemoved(ascending));
+    }
+
+    @Override
+    public void replaced(int[] ascending, Task[] previous, Task[] replacements) {
+        publish(new TaskEvent.StatusChanged(ascending, replacements));
+    }
+
+    @Override
+    public synchronized void reset(List<Task> snapshot) {
+        if (resync != null) {
+            resync = snapshot;
+            return;
+        }
+        offer(new TaskEvent.Reset(snapshot));
+    }
+
+    private synchronized void publish(TaskEvent event) {
+        if (resync != null) {
+            // the pending reset will carry this change
+            resync = source.get();
+            return;
+        }
+        offer(event);
+    }
+
+    /** Offers without waiting; if some subscriber is full, owes everyone a reset and starts retrying it. */
+    private void offer(TaskEvent event) {
+        assert Thread.holdsLock(this) : "offer(): caller must hold the lock";
+        if (publisher.isClosed() || publisher.offer(event, (subscriber, dropped) -> false) >= 0) {
+            return;
+        }
+        resync = source.get();
+        deliveries.execute(this::retryResync);
+    }
+
+    /** Runs on a delivery thread: offers the owed reset once every subscriber has room for it. */
+    private void retryResync() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    // only this lock's holders produce, so the lag cannot grow before the offer
+                    boolean hasRoom = publisher.estimateMaximumLag() < publisher.getMaxBufferCapacity();
+                    if (publisher.isClosed() || hasRoom
+                            && publisher.offer(new TaskEvent.Reset(resync), (subscriber, dropped) -> false) >= 0) {
+                        resync = null;
+                        return;
+                    }
+                }
+                Thread.sleep(RESYNC_RETRY_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Completes every subscription and stops the delivery threads once they are idle. */
+    @Override
+    public void close() {
+        publisher.close();
+        deliveries.shutdown();
+    }
+}
@@ -3,24 +3,82 @@ package tkit;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /**
  * Mutable container for {@link Task} objects that provides domain operations.
  * Responsibilities:
- *   Maintain an ordered list of tasks
+ *   Maintain an ordered list of tasks in a persistent {@link IndexedTaskTree}, so positional access and removal
+ *   are O(log n) and {@link #view()} is an O(1) snapshot
  *   Provide add/remove/mark/unmark operations
  *   Provide query helpers (keyword search, by-date filter)
+ *   Keep a {@link KeywordIndex} and a {@link DateIndex} in step with every add and remove
+ *   Tell registered {@link ChangeListener}s about every change, so views can update only the affected rows
+ * Each task carries an order key that increases along the list, so index hits can be put back in list order.
+ * Keys are spaced {@link #ORDER_GAP} apart so a task can be inserted mid-list by taking the midpoint of its
+ * neighbours' keys; if a gap is ever used up, every key is reassigned.
  */
 final class TaskList {
-    private final List<Task> tasks;
+    private final IndexedTaskTree tasks;
+    private final KeywordIndex keywords = new KeywordIndex();
+    private final DateIndex dates = new DateIndex();
+    private final Map<Task, Long> orderKeys = new IdentityHashMap<>();
+    private long nextOrderKey;
+    private final List<ChangeListener> listeners = new ArrayList<>();
+
+    /**
+     * Receives each change right after it is applied, on the thread that applied it.
+     * Positions are zero-based and refer to the list as it was just before the change.
+     */
+    interface ChangeListener {
+        /**
+         * A task was appended or inserted.
+         *
+         * @param idx position the task now occupies
+         * @param t the new task
+         */
+        void added(int idx, Task t);
+
+        /**
+         * Tasks were removed.
+         *
+         * @param ascending removed positions, strictly ascending
+         * @param removed the removed tasks, matching {@code ascending}
+         */
+        void removed(int[] ascending, Task[] removed);
+
+        /**
+         * Tasks were replaced by status copies.
+         *
+         * @param ascending replaced positions, strictly ascending
+         * @param previous the tasks that were replaced, matching {@code ascending}
+         * @param replacements the new tasks, matching {@code ascending}
+         */
+        void replaced(int[] ascending, Task[] previous, Task[] replacements);
+
+        /**
+         * The listener was moved onto a different list, e.g. after switching workspace; earlier positions no
+         * longer apply.
+         *
+         * @param snapshot contents of the list now being tracked
+         */
+        void reset(List<Task> snapshot);
+    }
+
+    /** Spacing between consecutive order keys, leaving room for mid-list inserts. */
+    static final long ORDER_GAP = 1L << 20;
 
     /** Creates an empty task list. */
     TaskList() {
-        this.tasks = new ArrayList<>();
-        assert this.tasks.isEmpty();
+        this.tasks = new IndexedTaskTree();
+        assert this.tasks.size() == 0;
     }
 
     /**
@@ -30,8 +88,11 @@ final class TaskList {
      * @param initial initial tasks; may be {@code null}
      */
     TaskList(List<Task> initial) {
-        this.tasks = new ArrayList<>(initial == null ? List.of() : initial);
+        this.tasks = new IndexedTaskTree(initial == null ? List.of() : initial);
         assert this.tasks != null;
+        for (Task t : tasks.view()) {
+            indexTask(t);
+        }
     }
 
     /**
@@ -49,7 +110,7 @@ final class TaskList {
      * @return whether the list is empty
      */
     boolean isEmpty() {
-        return tasks.isEmpty();
+        return tasks.size() == 0;
     }
 
     /**
@@ -65,12 +126,14 @@ final class TaskList {
     }
 
     /**
-     * Returns an unmodifiable view of the current tasks.
+     * Returns an O(1) read-only snapshot of the current tasks.
+     * The snapshot does not change when the list is edited afterwards, and it may be read from
+     * any thread without locking, e.g. by a background save or a renderer.
      *
-     * @return read-only list view
+     * @return immutable list snapshot
      */
     List<Task> view() {
-        return Collections.unmodifiableList(tasks);
+        return tasks.view();
     }
 
     /**
@@ -82,9 +145,40 @@ final class TaskList {
         assert t != null : "add(): task must not be null";
         int before = tasks.size();
         tasks.add(t);
+        indexTask(t);
+        for (ChangeListener l : listeners) {
+            l.added(before, t);
+        }
         assert tasks.size() == before + 1 : "add(): size must increase by 1";
     }
 
+    /**
+     * Inserts a task so that it ends up at the given index, shifting later tasks up by one.
+     *
+     * @param idx zero-based position, from {@code 0} to {@code size()} inclusive
+     * @param t task to insert
+     */
+    void insert(int idx, Task t) {
+        assert t != null : "insert(): task must not be null";
+        assert idx >= 0 && idx <= tasks.size() : "insert(): index out of bounds";
+        if (idx == tasks.size()) {
+            add(t);
+            return;
+        }
+        long next = orderKeys.get(tasks.get(idx));
+        long prev = idx == 0 ? next - 2 * ORDER_GAP : orderKeys.get(tasks.get(idx - 1));
+        if (next - prev < 2) {
+            renumber();
+            next = orderKeys.get(tasks.get(idx));
+            prev = idx == 0 ? next - 2 * ORDER_GAP : orderKeys.get(tasks.get(idx - 1));
+        }
+        tasks.insert(idx, t);
+        indexTask(t, prev + (next - prev) / 2);
+        for (ChangeListener l : listeners) {
+            l.added(idx, t);
+        }
+    }
+
     /**
      * Removes and returns the task at the given index.
      *
@@ -94,7 +188,12 @@ final class TaskList {
      */
     Task removeAt(int idx) {
         assert idx >= 0 && idx < tasks.size() : "removeAt(): index out of bounds";
-        return tasks.remove(idx);
+        Task removed = tasks.remove(idx);
+        unindexTask(removed);
+        for (ChangeListener l : listeners) {
+            l.removed(new int[] {idx}, new Task[] {removed});
+        }
+        return removed;
     }
 
     /**
@@ -104,7 +203,7 @@ final class TaskList {
      */
     void mark(int idx) {
         assert idx >= 0 && idx < tasks.size() : "mark(): index out of bounds";
-        tasks.get(idx).markAsDone();
+        setStatus(idx, Status.DONE);
     }
 
     /**
@@ -114,18 +213,95 @@ final class TaskList {
      */
     void unmark(int idx) {
         assert idx >= 0 && idx < tasks.size() : "unmark(): index out of bounds";
-        tasks.get(idx).markAsUndone();
+        setStatus(idx, Status.NOT_DONE);
+    }
+
+    /**
+     * Gives every listed task the same status in one pass over the tree, e.g. for {@code mark 1-500}.
+     *
+     * @param ascending unique zero-based positions in strictly ascending order
+     * @param status status to set
+     * @return the positions whose status actually changed, ascending
+     */
+    int[] setStatusAll(int[] ascending, Status status) {
+        assert ascending != null && status != null : "setStatusAll(): arguments must not be null";
+        int[] changed = new int[ascending.length];
+        Task[] olds = new Task[ascending.length];
+        Task[] replacements = new Task[ascending.length];
+        int count = 0;
+        for (int idx : ascending) {
+            assert idx >= 0 && idx < tasks.size() : "setStatusAll(): index out of bounds";
+            Task old = tasks.get(idx);
+            Task updated = old.withStatus(status);
+            if (updated != old) {
+                changed[count] = idx;
+                olds[count] = old;
+                replacements[count] = updated;
+                count++;
+            }
+        }
+        changed = Arrays.copyOf(changed, count);
+        olds = Arrays.copyOf(olds, count);
+        replacements = Arrays.copyOf(replacements, count);
+        tasks.setAll(changed, replacements);
+        for (int i = 0; i < count; i++) {
+            reindexTask(olds[i], replacements[i]);
+        }
+        if (count > 0) {
+            for (ChangeListener l : listeners) {
+                l.replaced(changed, olds, replacements);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Replaces the task at {@code idx} with a copy carrying {@code status}, keeping its order key.
+     * Tasks already in the list are never mutated, so earlier {@link #view()} snapshots stay unchanged.
+     */
+    private void setStatus(int idx, Status status) {
+        Task old = tasks.get(idx);
+        Task updated = old.withStatus(status);
+        if (updated == old) {
+            return;
+        }
+        tasks.set(idx, updated);
+        reindexTask(old, updated);
+        for (ChangeListener l : listeners) {
+            l.replaced(new int[] {idx}, new Task[] {old}, new Task[] {updated});
+        }
+    }
+
+    /** Moves the order key and index entries of {@code old} over to its status copy. */
+    private void reindexTask(Task old, Task updated) {
+        long order = orderKeys.remove(old);
+        orderKeys.put(updated, order);
+        keywords.replace(old, updated);
+        dates.remove(old, order);
+        dates.add(updated, order);
     }
 
     /**
      * Returns tasks whose description contains the keyword, case-insensitively.
+     * Keywords of three or more characters are narrowed through the trigram index first.
      *
      * @param keyword search string; leading/trailing spaces are ignored
      * @return ordered list of matching tasks
      */
     List<Task> find(String keyword) {
+        Collection<Task> candidates = keywords.candidates(keyword);
+        if (candidates != null) {
+            List<Task> hits = new ArrayList<>(candidates.size());
+            for (Task t : candidates) {
+                if (t.containsKeyword(keyword)) {
+                    hits.add(t);
+                }
+            }
+            return inListOrder(hits);
+        }
+
         List<Task> hits = new ArrayList<>();
-        for (Task t : tasks) {
+        for (Task t : tasks.view()) {
             assert t != null : "List must not contain null tasks";
             if (t.containsKeyword(keyword)) {
                 hits.add(t);
@@ -140,32 +316,57 @@ final class TaskList {
      * For a {@link Deadline}, compares the due date. For an {@link Event},
      * returns the task if the date intersects the inclusive range
      * [{@code from}, {@code to}] by calendar date.
+     * Answered from the date index in O(log n + k).
      *
      * @param date target date
      * @return ordered list of tasks on the date
      */
     List<Task> onDate(LocalDate date) {
-        List<Task> hits = new ArrayList<>();
-        for (Task t : tasks) {
-            if (t instanceof Deadline) {
-                if (((Deadline) t).getDueDate().toLocalDate().equals(date)) {
-                    hits.add(t);
-                }
-            } else if (t instanceof Event) {
-                LocalDateTime from = ((Event) t).getFromDate();
-                LocalDateTime to = ((Event) t).getToDate();
-                if (DateTimeUtil.dateIntersects(date, from, to)) {
-                    hits.add(t);
-                }
-            }
-        }
-        return hits;
+        return inListOrder(dates.onDate(date));
+    }
+
+    /**
+     * Returns up to {@code limit} undone deadlines due at or after {@code now}, soonest first.
+     * Ties on the due date keep list order.
+     *
+     * @param now reference time
+     * @param limit maximum number of tasks; must be positive
+     * @return upcoming deadlines
+     */
+    List<Task> upcoming(LocalDateTime now, int limit) {
+        assert now != null && limit > 0 : "upcoming(): need a time and a positive limit";
+        return dates.upcoming(now, limit);
+    }
+
+    /**
+     * Returns undone deadlines due before {@code now}, oldest first.
+     *
+     * @param now reference time
+     * @return overdue deadlines
+     */
+    List<Task> overdue(LocalDateTime now) {
+        assert now != null : "overdue(): time must not be null";
+        return dates.overdue(now);
+    }
+
+    /**
+     * Returns deadlines due from {@code first} to {@code last} inclusive, by calendar date, soonest first.
+     * The bounds may be given in either order.
+     *
+     * @param first one end of the range
+     * @param last the other end of the range
+     * @return deadlines in the range, done or not
+     */
+    List<Task> between(LocalDate first, LocalDate last) {
+        assert first != null && last != null : "between(): dates must not be null";
+        return first.isAfter(last) ? dates.between(last, first) : dates.between(first, last);
     }
 
     /**
      * Removes tasks at the given zero-based indices. Indices must be unique and sorted in
      * strictly descending order to avoid reindexing issues. The method assumes indices
-     * have already been range-checked by the caller.
+     * have already been range-checked by the caller. All positions are removed in a
+     * single descent of the tree, in O(k log n).
      *
      * @param zeroBasedDescending unique indices in strictly descending order
      * @return tasks removed, in the same order as indices provided
@@ -180,11 +381,83 @@ final class TaskList {
             assert idx < last : "removeManyDescending(): indices must be strictly descending";
             last = idx;
         }
-        List<Task> removed = new ArrayList<>();
-        for (int idx : zeroBasedDescending) {
-            removed.add(tasks.remove(idx));
+        int[] ascending = new int[zeroBasedDescending.size()];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[ascending.length - 1 - i] = zeroBasedDescending.get(i);
+        }
+        List<Task> removed = tasks.removeAll(ascending);
+        Task[] removedAscending = removed.toArray(new Task[0]);
+        Collections.reverse(removed);
+        for (Task t : removed) {
+            unindexTask(t);
+        }
+        for (ChangeListener l : listeners) {
+            l.removed(ascending, removedAscending);
         }
         return removed;
     }
 
+    /**
+     * Registers a listener and returns the list it will be tracking changes from.
+     * Call on the thread that edits the list, so no change can slip in between the two.
+     *
+     * @param listener listener to register
+     * @return snapshot of the list at registration
+     */
+    List<Task> subscribe(ChangeListener listener) {
+        assert listener != null : "subscribe(): listener must not be null";
+        listeners.add(listener);
+        return tasks.view();
+    }
+
+    /**
+     * Stops sending changes to a listener registered with {@link #subscribe(ChangeListener)}.
+     *
+     * @param listener listener to remove; ignored if not registered
+     */
+    void unsubscribe(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Sorts index hits back into list order. */
+    private List<Task> inListOrder(List<Task> hits) {
+        hits.sort(Comparator.comparingLong(orderKeys::get));
+        return hits;
+    }
+
+    /** Assigns the next order key and files the task in the indexes. */
+    private void indexTask(Task t) {
+        nextOrderKey += ORDER_GAP;
+        indexTask(t, nextOrderKey);
+    }
+
+    /** Files the task in the indexes under the given order key. */
+    private void indexTask(Task t, long order) {
+        assert !orderKeys.containsKey(t) : "A task may appear in the list only once";
+        orderKeys.put(t, order);
+        keywords.add(t);
+        dates.add(t, order);
+    }
+
+    /** Reassigns evenly spaced order keys to every task, restoring room for inserts. */
+    private void renumber() {
+        for (Task t : tasks.view()) {
+            dates.remove(t, orderKeys.get(t));
+        }
+        nextOrderKey = 0;
+        for (Task t : tasks.view()) {
+            nextOrderKey += ORDER_GAP;
+            orderKeys.put(t, nextOrderKey);
+            dates.add(t, nextOrderKey);
+        }
+    }
+
+    /** Drops the task from the indexes. */
+    private void unindexTask(Task t) {
+        Long order = orderKeys.remove(t);
+        assert order != null : "unindexTask(): task was not indexed";
+        keywords.remove(t);
+        dates.remove(t, order);
+    }
+
 }
@@ -0,0 +1,140 @@
+package tkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Observable mirror of a {@link TaskList} that backs the task table in the GUI.
+ * Responsibilities:
+ *   Subscribe to the {@link TaskEvent} stream and replay each event on the JavaFX thread
+ *   Apply adds, removes and status changes row by row, so the table only redraws rows that changed
+ *   Fall back to one compacting pass for bulk edits larger than {@link #BULK_THRESHOLD}
+ * Events are requested one at a time, after the previous one has been applied, so a busy JavaFX thread slows
+ * the stream down through its bounded buffer instead of piling up {@link Platform#runLater} calls.
+ */
+final class TaskTableModel implements Flow.Subscriber<TaskEvent> {
+
+    /** Bulk edits touching more rows than this rebuild the row list in one pass instead of row by row. */
+    static final int BULK_THRESHOLD = 64;
+
+    private final ObservableList<Task> rows = FXCollections.observableArrayList();
+    private Flow.Subscription subscription;
+
+    /**
+     * Shows the given rows in a table and sets up its type, status, description and date columns.
+     *
+     * @param table table to configure; its virtualized cells are reused while scrolling
+     */
+    void attach(TableView<Task> table) {
+        table.setItems(rows);
+        table.setPlaceholder(new Label("No tasks yet."));
+        table.getColumns().setAll(List.of(
+                column("Type", 50, t -> t.type.tag()),
+                column("Done", 50, t -> t.status.stateIcon()),
+                column("Description", 180, t -> t.description),
+                column("Dates", 200, TaskTableModel::dates)));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription s) {
+        subscription = s;
+        s.request(1);
+    }
+
+    /** Applies the event on the JavaFX thread, and only then asks for the next one. */
+    @Override
+    public void onNext(TaskEvent event) {
+        Platform.runLater(() -> {
+            apply(event);
+            subscription.request(1);
+        });
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        System.err.println("Warning: task table stopped updating: " + error.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+        // the table keeps showing the last known rows
+    }
+
+    private void apply(TaskEvent event) {
+        if (event instanceof TaskEvent.Reset) {
+            rows.setAll(((TaskEvent.Reset) event).tasks);
+        } else if (event instanceof TaskEvent.Added) {
+            TaskEvent.Added added = (TaskEvent.Added) event;
+            rows.add(added.index, added.task);
+        } else if (event instanceof TaskEvent.Removed) {
+            rows.remove(((TaskEvent.Removed) event).index);
+        } else if (event instanceof TaskEvent.BulkRemoved) {
+            removeAll(((TaskEvent.BulkRemoved) event).positions());
+        } else if (event instanceof TaskEvent.StatusChanged) {
+            TaskEvent.StatusChanged changed = (TaskEvent.StatusChanged) event;
+            replaceAll(changed.positions(), changed.replacements());
+        }
+    }
+
+    private void removeAll(int[] ascending) {
+        if (ascending.length <= BULK_THRESHOLD) {
+            for (int i = ascending.length - 1; i >= 0; i--) {
+                rows.remove(ascending[i]);
+            }
+            return;
+        }
+        List<Task> kept = new ArrayList<>(rows.size() - ascending.length);
+        int next = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            if (next < ascending.length && ascending[next] == i) {
+                next++;
+            } else {
+                kept.add(rows.get(i));
+            }
+        }
+        rows.setAll(kept);
+    }
+
+    private void replaceAll(int[] ascending, Task[] replacements) {
+        if (ascending.length <= BULK_THRESHOLD) {
+            for (int i = 0; i < ascending.length; i++) {
+                rows.set(ascending[i], replacements[i]);
+            }
+            return;
+        }
+        List<Task> updated = new ArrayList<>(rows);
+        for (int i = 0; i < ascending.length; i++) {
+            updated.set(ascending[i], replacements[i]);
+        }
+        rows.setAll(updated);
+    }
+
+    private static TableColumn<Task, String> column(String title, double width, Function<Task, String> value) {
+        TableColumn<Task, String> c = new TableColumn<>(title);
+        c.setPrefWidth(width);
+        c.setSortable(false);
+        c.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+        return c;
+    }
+
+    private static String dates(Task t) {
+        if (t instanceof Deadline) {
+            return "by " + DateTimeUtil.pretty(((Deadline) t).getDueDate());
+        }
+        if (t instanceof Event) {
+            Event e = (Event) t;
+            return DateTimeUtil.pretty(e.getFromDate()) + " - " + DateTimeUtil.pretty(e.getToDate());
+        }
+        return "";
+    }
+}
@@ -0,0 +1,236 @@
+package tkit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: schedules items to expire at an integer tick, with O(1) insert and cancel
+ * however many items are pending.
+ * Layout:
+ *   {@link #LEVELS} wheels of {@link #SLOTS} slots each; a slot on level {@code k} spans {@code SLOTS^k} ticks
+ *   An item sits on the lowest level whose slot range still shares every higher digit with the current tick,
+ *   so level 0 holds the next {@code SLOTS} ticks, level 1 the next {@code SLOTS^2}, and so on
+ *   Each slot is a doubly linked list of {@link Timer}s, so a timer unlinks itself without a search
+ * Advancing one tick fires level 0's current slot; whenever a level's digit rolls over, the next slot of the level
+ * above is emptied and its items re-filed lower down ("cascading"). Each item cascades at most once per level.
+ * Not thread-safe; callers synchronise.
+ *
+ * @param <T> item carried by each timer
+ */
+final class TimingWheel<T> {
+
+    /** Bits of the tick consumed by each level. */
+    static final int SLOT_BITS = 6;
+
+    /** Slots per level. */
+    static final int SLOTS = 1 << SLOT_BITS;
+
+    /** Number of levels; together they cover {@code 2^36} ticks ahead, about 130,000 years of minutes. */
+    static final int LEVELS = 6;
+
+    /** A scheduled item; hold on to it to {@link #cancel(Timer)} it. */
+    static final class Timer<T> {
+        final long expiry;
+        final T item;
+        private Timer<T> prev;
+        private Timer<T> next;
+        /** Slot this timer is linked into, or {@code null} once fired or cancelled. */
+        private Slot<T> slot;
+
+        private Timer(long expiry, T item) {
+            this.expiry = expiry;
+            this.item = item;
+        }
+
+        /** True while the timer is still waiting to fire. */
+        boolean isPending() {
+            return slot != null;
+        }
+    }
+
+    /** Doubly linked list of timers with a head pointer. */
+    private static final class Slot<T> {
+        private Timer<T> head;
+
+        void link(Timer<T> t) {
+            t.slot = this;
+            t.prev = null;
+            t.next = head;
+            if (head != null) {
+                head.prev = t;
+            }
+            head = t;
+        }
+
+        void unlink(Timer<T> t) {
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                head = t.next;
+            }
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.slot = null;
+        }
+
+        /** Detaches and returns the whole chain; the returned timers are still marked as linked. */
+        Timer<T> takeAll() {
+            Timer<T> all = head;
+            head = null;
+            return all;
+        }
+    }
+
+    /** Slots of every level, level by level. */
+    private final List<List<Slot<T>>> wheels = new ArrayList<>(LEVELS);
+    /** Timers whose expiry had already passed when scheduled; fired by the next {@link #advance}. */
+    private final Slot<T> due = new Slot<>();
+    private long now;
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param startTick current tick
+     */
+    TimingWheel(long startTick) {
+        assert startTick >= 0 : "TimingWheel(): ticks must be non-negative";
+        this.now = startTick;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Slot<T>> slots = new ArrayList<>(SLOTS);
+            for (int i = 0; i < SLOTS; i++) {
+                slots.add(new Slot<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    /** Returns the tick the wheel has advanced to. */
+    long now() {
+        return now;
+    }
+
+    /** Returns the number of pending timers. */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules an item. An expiry at or before the current tick fires on the next {@link #advance}.
+     *
+     * @param expiry tick at which the item fires
+     * @param item item to hand back when it fires
+     * @return handle for {@link #cancel(Timer)}
+     */
+    Timer<T> schedule(long expiry, T item) {
+        assert expiry - now < 1L << (SLOT_BITS * LEVELS) : "schedule(): expiry beyond the top wheel";
+        Timer<T> t = new Timer<>(expiry, item);
+        place(t);
+        size++;
+        return t;
+    }
+
+    /**
+     * Cancels a timer in O(1).
+     *
+     * @param t timer from {@link #schedule}
+     * @return {@code false} if it had already fired or been cancelled
+     */
+    boolean cancel(Timer<T> t) {
+        if (t == null || t.slot == null) {
+            return false;
+        }
+        t.slot.unlink(t);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances to {@code tick}, appending the item of every timer that expires on the way, in expiry order.
+     *
+     * @param tick target tick; ignored if not after the current one, except that overdue timers still fire
+     * @param fired receives expired items
+     */
+    void advance(long tick, List<T> fired) {
+        drain(due, fired);
+        while (now < tick) {
+            now++;
+            int top = 0;
+            while (top + 1 < LEVELS && (now & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            for (int level = top; level >= 1; level--) {
+                cascade(wheels.get(level).get(slotOf(now, level)));
+            }
+            // a cascaded timer expiring exactly now is re-filed as due
+            drain(due, fired);
+            drain(wheels.get(0).get(slotOf(now, 0)), fired);
+        }
+    }
+
+    /** Removes every pending timer. */
+    void clear() {
+        for (List<Slot<T>> level : wheels) {
+            for (Slot<T> slot : level) {
+                unlinkAll(slot);
+            }
+        }
+        unlinkAll(due);
+        size = 0;
+    }
+
+    private void place(Timer<T> t) {
+        if (t.expiry <= now) {
+            due.link(t);
+            return;
+        }
+        int level = 0;
+        int shift = SLOT_BITS;
+        while (level + 1 < LEVELS && (t.expiry >>> shift) != (now >>> shift)) {
+            level++;
+            shift += SLOT_BITS;
+        }
+        wheels.get(level).get(slotOf(t.expiry, level)).link(t);
+    }
+
+    private void cascade(Slot<T> slot) {
+        Timer<T> t = slot.takeAll();
+        while (t != null) {
+            Timer<T> next = t.next;
+            place(t);
+            t = next;
+        }
+    }
+
+    private void drain(Slot<T> slot, List<T> fired) {
+        Timer<T> t = slot.takeAll();
+        while (t != null) {
+            assert t.expiry <= now : "drain(): timer fired early";
+            Timer<T> next = t.next;
+            t.prev = null;
+            t.next = null;
+            t.slot = null;
+            fired.add(t.item);
+            size--;
+            t = next;
+        }
+    }
+
+    private static <T> void unlinkAll(Slot<T> slot) {
+        Timer<T> t = slot.takeAll();
+        while (t != null) {
+            Timer<T> next = t.next;
+            t.prev = null;
+            t.next = null;
+            t.slot = null;
+            t = next;
+        }
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+}
@@ -1,7 +1,17 @@
 package tkit;
 
-
-
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -12,6 +22,7 @@ import tkit.Parser.SplitCommand;
  * Responsibilities:
  *   Initialize subsystems (UI, storage, task list)
  *   Read input, parse commands, and dispatch actions
+ *   Print reminders for approaching deadlines and events in interactive mode
  *   Persist changes after each mutation
  *
  * Usage
@@ -19,6 +30,10 @@ import tkit.Parser.SplitCommand;
  * javac -d out src/main/java/tkit/*.java
  * # Run
  * java -cp out tkit.Tkit
+ * # Run a script of commands with one save at the end (FILE may be "-" or omitted for stdin)
+ * java -cp out tkit.Tkit --batch [FILE] [--checkpoint N]
+ * # Serve commands to local clients over TCP (127.0.0.1 only; default port 4117)
+ * java -cp out tkit.Tkit --serve [PORT]
  */
 public final class Tkit {
     /** Identity banner line. */
@@ -30,265 +45,429 @@ public final class Tkit {
     /** Console UI renderer. */
     private static final Ui ui = new Ui();
 
+    /** Flag that selects batch mode. */
+    private static final String BATCH_FLAG = "--batch";
+
+    /** Flag that selects server mode. */
+    private static final String SERVE_FLAG = "--serve";
+
+    /** Flag that sets how many batch lines run between snapshot checkpoints. */
+    private static final String CHECKPOINT_FLAG = "--checkpoint";
+
     /**
      * Application entry point.
      *
-     * @param args unused
+     * @param args empty for interactive mode, {@code --batch [FILE] [--checkpoint N]} or {@code --serve [PORT]}
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(BATCH_FLAG)) {
+            runBatch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(SERVE_FLAG)) {
+            runServer(args);
+            return;
+        }
         ui.banner(IDENTITY);
 
         TaskList tasks = new TaskList(storage.load());
         assert tasks != null : "TaskList must be constructed";
+        UndoLog undoLog = new UndoLog();
+        Reminders reminders = new Reminders(Reminders.leadFromConfig(), LocalDateTime.now(), ui::reminder);
+        reminders.reset(tasks.subscribe(reminders));
+        reminders.start();
 
-        try (Scanner input = new Scanner(System.in)) {
-            while (true) {
+        try (reminders; Scanner input = new Scanner(System.in)) {
+            while (input.hasNextLine()) {
                 String rawLine = input.nextLine().trim();
                 assert rawLine != null : "Scanner returned null line";
-
-                try {
-                    SplitCommand parsed = Parser.parse(rawLine);
-                    assert parsed != null;
-
-                    switch (parsed.command) {
-                    case BYE: {
-                        ui.exit();
-                        return;
-                    }
-
-                    case LIST: {
-                        ui.list(tasks.view());
-                        break;
-                    }
-
-                    case TODO: {
-                        String description = parsed.argOrEmpty().trim();
-                        if (description.isEmpty()) {
-                            ui.error("I do not understand this input format\n"
-                                    + "Todo requires a description."
-                                    + "Please try: todo <DESCRIPTION>");
-                            break;
-                        }
-                        Task task = new Todo(description);
-                        tasks.add(task);
-                        storage.save(tasks.view());
-                        ui.added(task, tasks.size());
-                        break;
-                    }
-
-                    case DEADLINE: {
-                        String body = parsed.argOrEmpty().trim();
-                        String[] parts = body.split("\\s*/by\\s*", 2);
-                        if (parts.length < 2 || parts[0].trim().isEmpty() || parts[1].trim().isEmpty()) {
-                            ui.error("I do not understand this input format\n"
-                                    + "Wrong deadline input format.\n"
-                                    + "Please try: deadline <TASK> /by <DATE_OR_DATE_TIME>\n"
-                                    + "Examples: 2019-12-02 1800  |  2019-12-02  |  2/12/2019 1800");
-                            break;
-                        }
-                        var by = DateTimeUtil.tryParseToLdt(parts[1].trim());
-                        if (by == null) {
-                            ui.error("I do not recognize this date/time format: \""
-                                    + parts[1].trim()
-                                    + "\"\nPlease try: deadline <TASK> /by <DATE_OR_DATE_TIME>\n"
-                                    + "Examples: 2019-12-02 1800  |  2019-12-02  |  2/12/2019 1800");
-                            break;
-                        }
-                        Task task = new Deadline(parts[0].trim(), by);
-                        tasks.add(task);
-                        storage.save(tasks.view());
-                        ui.added(task, tasks.size());
-                        break;
-                    }
-
-                    case EVENT: {
-                        String body = parsed.argOrEmpty().trim();
-                        String[] firstSplit = body.split("\\s*/from\\s*", 2);
-                        if (firstSplit.length < 2 || firstSplit[0].trim().isEmpty()) {
-                            ui.error("I do not understand this input format.\n"
-                                    + "Wrong event input format.\n"
-                                    + "Please try: event <EVENT> /from <START> /to <END>");
-                            break;
-                        }
-                        String[] secondSplit = firstSplit[1].split("\\s*/to\\s*", 2);
-                        if (secondSplit.length < 2
-                                || secondSplit[0].trim().isEmpty()
-                                || secondSplit[1].trim().isEmpty()) {
-                            ui.error("I do not understand this input format.\n"
-                                    + "Wrong event input format.\n"
-                                    + "Please try: event <EVENT> /from <START> /to <END>");
-                            break;
-                        }
-                        var from = DateTimeUtil.tryParseToLdt(secondSplit[0].trim());
-                        var to = DateTimeUtil.tryParseToLdt(secondSplit[1].trim());
-                        if (from == null || to == null) {
-                            ui.error("I do not understand this input format.\n"
-                                    + "Please try: event <EVENT> /from <START> /to <END>\n"
-                                    + "Examples: 2019-12-02 1400  |  2019-12-02  |  2/12/2019 1600");
-                            break;
-                        }
-                        Task task = new Event(firstSplit[0].trim(), from, to);
-                        tasks.add(task);
-                        storage.save(tasks.view());
-                        ui.added(task, tasks.size());
-                        break;
-                    }
-
-                    case MARK: {
-                        int index = parseIndex(parsed.argOrEmpty(), tasks.size());
-                        tasks.mark(index);
-                        storage.save(tasks.view());
-                        ui.marked(tasks.get(index));
-                        break;
-                    }
-
-                    case UNMARK: {
-                        int index = parseIndex(parsed.argOrEmpty(), tasks.size());
-                        tasks.unmark(index);
-                        storage.save(tasks.view());
-                        ui.unmarked(tasks.get(index));
-                        break;
-                    }
-
-                    case DELETE: {
-                        String arg = parsed.argOrEmpty();
-                        if (arg.isEmpty()) {
-                            ui.error("I do not understand this input format.\n"
-                                    + "Delete requires an index. "
-                                    + "Please try: delete <TASK_NUMBER> or delete N, M, ...");
-                            break;
-                        }
-                        List<Integer> indices = parseMultipleIndices(arg, tasks.size()); // zero-based, descending
-                        if (indices.size() == 1) {
-                            int index = indices.get(0);
-                            Task removed = tasks.removeAt(index);
-                            storage.save(tasks.view());
-                            ui.removed(removed, tasks.size());
-                        } else {
-                            List<Task> removed = tasks.removeManyDescending(indices);
-                            storage.save(tasks.view());
-                            ui.removedMany(removed, tasks.size());
-                        }
-                        break;
-                    }
-
-
-                    case ON: {
-                        String raw = parsed.argOrEmpty().trim();
-                        var targetDate = DateTimeUtil.tryParseToLocalDate(raw);
-                        if (targetDate == null) {
-                            ui.error("Unrecognized date.\nUse: on <DATE or DATE TIME>\n"
-                                    + "Examples: on 2019-12-02  |  on 2/12/2019");
-                            break;
-                        }
-                        ui.onDate(targetDate, tasks.onDate(targetDate));
-                        break;
-                    }
-
-                    case FIND: {
-                        String keyword = parsed.argOrEmpty().trim();
-                        if (keyword.isEmpty()) {
-                            ui.error("I do not understand this input format.\n"
-                                    + "Find requires a keyword. "
-                                    + "Use: find <KEYWORD>");
-                            break;
-                        }
-                        ui.matches(tasks.find(keyword));
-                        break;
-                    }
-
-                    case UNKNOWN:
-                    default:
-                        ui.error("I do not understand this command: \""
-                                + rawLine
-                                + "\".\nTry: list, todo, deadline, event, "
-                                + "mark N, unmark N, delete N, find <KEYWORD>, bye.");
-                        break;
-                    }
-                } catch (TkitException e) {
-                    ui.error(e.getMessage());
-                } catch (Exception e) {
-                    ui.error("Error: " + e.getMessage());
+                if (dispatch(rawLine, tasks, undoLog)) {
+                    return;
                 }
             }
+        } finally {
+            storage.flush();
+        }
+    }
+
+    /**
+     * Serves commands on the loopback interface until the process is interrupted; pending saves are
+     * flushed on shutdown.
+     */
+    private static void runServer(String[] args) {
+        int port = args.length > 1
+                ? parseFlagValue(args[1], 0, 65535, "Use: --serve [PORT], where PORT is from 0 to 65535.")
+                : CommandServer.DEFAULT_PORT;
+        if (port < 0) {
+            return;
+        }
+        CommandServer server = new CommandServer(new CommandProcessor());
+        try {
+            int bound = server.start(port);
+            System.out.println("Tkit listening on 127.0.0.1:" + bound + ". Press Ctrl+C to stop.");
+        } catch (IOException e) {
+            System.err.println("Could not listen on port " + port + ": " + e.getMessage());
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Warning: " + e.getMessage());
+            }
+        }, "tkit-shutdown"));
+        try {
+            // connection threads are daemons, so park here until the JVM is told to exit
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Parses a 1-based index from user input and validates it against the current list size.
+     * Parses the value of a command-line flag as a whole number within {@code [min, max]}.
+     * Prints {@code usage} as an error block if the value is missing, not a number or out of range.
      *
-     * @param userSuppliedIndex string containing a 1-based index
-     * @param currentSize       current task list size
-     * @return zero-based index within {@code [0, currentSize)}
-     * @throws TkitException if parsing fails or the index is out of range
+     * @param value raw value, or {@code null} if the flag was the last argument
+     * @param min smallest accepted value; must be non-negative
+     * @param max largest accepted value
+     * @param usage message shown on a bad value
+     * @return the value, or {@code -1} if it was rejected
      */
-    private static int parseIndex(String userSuppliedIndex, int currentSize) throws TkitException {
-        assert currentSize >= 0;
-        String trimmed = userSuppliedIndex.trim();
-        assert !trimmed.isEmpty();
+    private static int parseFlagValue(String value, int min, int max, String usage) {
+        assert min >= 0 && min <= max : "parseFlagValue(): bad range";
         try {
-            int oneBased = Integer.parseInt(trimmed);
-            int zeroBased = oneBased - 1;
-            if (zeroBased < 0 || zeroBased >= currentSize) {
-                throw new TkitException("Invalid task number: "
-                        + oneBased
-                        + ". List has "
-                        + currentSize
-                        + " task(s).");
+            int parsed = value == null ? -1 : Integer.parseInt(value.trim());
+            if (parsed >= min && parsed <= max) {
+                return parsed;
             }
-            return zeroBased;
         } catch (NumberFormatException e) {
-            throw new TkitException("Task number must be of type int. Received: \"" + trimmed + "\"");
+            // reported below like any other bad value
         }
+        ui.error((value == null ? "Missing value." : "Invalid value: \"" + value + "\".") + "\n" + usage);
+        return -1;
     }
 
     /**
-     * Parses one or more 1-based indices (comma/whitespace separated).
-     * Validates range against currentSize. Throws with a message that lists
-     * the non-existent 1-based indices and guarantees no mutation should occur.
-     *
-     * @return zero-based, unique, strictly descending indices
+     * Runs every line of a script through {@link #dispatch(String, TaskList, UndoLog)}.
+     * Journaling is deferred for the whole run: the list is saved once at the end, plus every
+     * {@code N} lines if {@code --checkpoint N} is given. Output is buffered and a throughput
+     * summary is printed last. Blank lines are skipped; {@code bye} ends the run early.
      */
-    private static List<Integer> parseMultipleIndices(String user, int currentSize) throws TkitException {
-        assert currentSize >= 0;
-        String s = user == null ? "" : user.trim();
-        if (s.isEmpty()) {
-            throw new TkitException("Delete requires at least one index. Use: delete <N[, M, ...]>");
+    private static void runBatch(String[] args) {
+        String source = "-";
+        int checkpointEvery = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals(CHECKPOINT_FLAG)) {
+                checkpointEvery = parseFlagValue(i + 1 < args.length ? args[++i] : null, 1, Integer.MAX_VALUE,
+                        "Use: --batch [FILE] [--checkpoint N], where N is a positive number of lines.");
+                if (checkpointEvery < 0) {
+                    return;
+                }
+            } else {
+                source = args[i];
+            }
         }
-        String[] tokens = s.split("[,\\s]+");
-        List<Integer> oneBased = new java.util.ArrayList<>();
-        for (String tok : tokens) {
-            if (tok.isBlank()) {
-                continue;
+
+        PrintStream console = System.out;
+        PrintStream buffered = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        System.setOut(buffered);
+        TaskList tasks = new TaskList(storage.load());
+        UndoLog undoLog = new UndoLog();
+        storage.setDeferred(true);
+        long lines = 0;
+        int saves = 0;
+        long started = System.nanoTime();
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in), 1 << 16)
+                : Files.newBufferedReader(Path.of(source))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String rawLine = line.trim();
+                if (rawLine.isEmpty()) {
+                    continue;
+                }
+                lines++;
+                if (dispatch(rawLine, tasks, undoLog)) {
+                    break;
+                }
+                if (checkpointEvery > 0 && lines % checkpointEvery == 0 && storage.checkpoint(tasks.view())) {
+                    saves++;
+                }
             }
-            try {
-                oneBased.add(Integer.parseInt(tok));
-            } catch (NumberFormatException nfe) {
-                throw new TkitException("Task number must be of type int. Received: \"" + tok + "\"");
+        } catch (IOException e) {
+            ui.error("Could not read batch input: " + e.getMessage());
+        } finally {
+            if (storage.checkpoint(tasks.view())) {
+                saves++;
             }
+            storage.setDeferred(false);
+            storage.flush();
+            ui.batchSummary(lines, ui.errorCount(), saves, System.nanoTime() - started);
+            buffered.flush();
+            System.setOut(console);
         }
-        if (oneBased.isEmpty()) {
-            throw new TkitException("Delete requires at least one index. Use: delete <N[, M, ...]>");
-        }
-        List<Integer> oob = new java.util.ArrayList<>();
-        for (int ob : oneBased) {
-            int zb = ob - 1;
-            if (zb < 0 || zb >= currentSize) {
-                oob.add(ob);
+    }
+
+    /**
+     * Parses and runs one command line, printing its result.
+     * {@code ;} sequences and {@code begin}/{@code commit}/{@code rollback} are refused with an error, so a line
+     * meant for the GUI is never taken as one long description; {@code \;} is read as a plain semicolon.
+     *
+     * @param rawLine trimmed input line
+     * @param tasks current task list
+     * @param undoLog undo history for the session
+     * @return true if the command asks to exit
+     */
+    private static boolean dispatch(String rawLine, TaskList tasks, UndoLog undoLog) {
+        try {
+            List<String> steps = Parser.splitSequence(rawLine);
+            if (steps.size() > 1) {
+                ui.error("The console runs one command per line; ; sequences need the GUI or --serve.\n"
+                        + "To put a semicolon in a description, write \\;");
+                return false;
+            }
+            SplitCommand parsed = Parser.parse(steps.isEmpty() ? "" : steps.get(0));
+            assert parsed != null;
+
+            switch (parsed.command) {
+            case BEGIN:
+            case COMMIT:
+            case ROLLBACK: {
+                ui.error("Transactions are not available in the console; use the GUI instead.\n"
+                        + "Each console command is saved as soon as it runs.");
+                break;
+            }
+
+            case BYE: {
+                ui.exit();
+                return true;
+            }
+
+            case LIST: {
+                ui.list(tasks.view(), ListRenderer.parse(parsed.argOrEmpty(), tasks.size()));
+                break;
+            }
+
+            case TODO: {
+                String description = parsed.argOrEmpty().trim();
+                if (description.isEmpty()) {
+                    ui.error("I do not understand this input format\n"
+                            + "Todo requires a description."
+                            + "Please try: todo <DESCRIPTION>");
+                    break;
+                }
+                Task task = new Todo(description);
+                tasks.add(task);
+                storage.recordAdd(task, tasks.view());
+                undoLog.record(UndoLog.added(tasks.size() - 1, task));
+                ui.added(task, tasks.size());
+                break;
+            }
+
+            case DEADLINE: {
+                String body = parsed.argOrEmpty().trim();
+                String[] parts = body.split("\\s*/by\\s*", 2);
+                if (parts.length < 2 || parts[0].trim().isEmpty() || parts[1].trim().isEmpty()) {
+                    ui.error("I do not understand this input format\n"
+                            + "Wrong deadline input format.\n"
+                            + "Please try: deadline <TASK> /by <DATE_OR_DATE_TIME>\n"
+                            + "Examples: 2019-12-02 1800  |  2019-12-02  |  2/12/2019 1800");
+                    break;
+                }
+                var by = DateTimeUtil.tryParseToLdt(parts[1].trim());
+                if (by == null) {
+                    ui.error("I do not recognize this date/time format: \""
+                            + parts[1].trim()
+                            + "\"\nPlease try: deadline <TASK> /by <DATE_OR_DATE_TIME>\n"
+                            + "Examples: 2019-12-02 1800  |  2019-12-02  |  2/12/2019 1800");
+                    break;
+                }
+                Task task = new Deadline(parts[0].trim(), by);
+                tasks.add(task);
+                storage.recordAdd(task, tasks.view());
+                undoLog.record(UndoLog.added(tasks.size() - 1, task));
+                ui.added(task, tasks.size());
+                break;
+            }
+
+            case EVENT: {
+                String body = parsed.argOrEmpty().trim();
+                String[] firstSplit = body.split("\\s*/from\\s*", 2);
+                if (firstSplit.length < 2 || firstSplit[0].trim().isEmpty()) {
+                    ui.error("I do not understand this input format.\n"
+                            + "Wrong event input format.\n"
+                            + "Please try: event <EVENT> /from <START> /to <END>");
+                    break;
+                }
+                String[] secondSplit = firstSplit[1].split("\\s*/to\\s*", 2);
+                if (secondSplit.length < 2
+                        || secondSplit[0].trim().isEmpty()
+                        || secondSplit[1].trim().isEmpty()) {
+                    ui.error("I do not understand this input format.\n"
+                            + "Wrong event input format.\n"
+                            + "Please try: event <EVENT> /from <START> /to <END>");
+                    break;
+                }
+                var from = DateTimeUtil.tryParseToLdt(secondSplit[0].trim());
+                var to = DateTimeUtil.tryParseToLdt(secondSplit[1].trim());
+                if (from == null || to == null) {
+                    ui.error("I do not understand this input format.\n"
+                            + "Please try: event <EVENT> /from <START> /to <END>\n"
+                            + "Examples: 2019-12-02 1400  |  2019-12-02  |  2/12/2019 1600");
+                    break;
+                }
+                Task task = new Event(firstSplit[0].trim(), from, to);
+                tasks.add(task);
+                storage.recordAdd(task, tasks.view());
+                undoLog.record(UndoLog.added(tasks.size() - 1, task));
+                ui.added(task, tasks.size());
+                break;
+            }
+
+            case MARK:
+                changeStatus(parsed.argOrEmpty().trim(), Status.DONE, tasks, undoLog);
+                break;
+
+            case UNMARK:
+                changeStatus(parsed.argOrEmpty().trim(), Status.NOT_DONE, tasks, undoLog);
+                break;
+
+            case DELETE: {
+                String arg = parsed.argOrEmpty().trim();
+                if (arg.isEmpty()) {
+                    ui.error("I do not understand this input format.\n"
+                            + "Delete requires an index. "
+                            + "Please try: delete <N[, M-K, ...]>, delete done or delete before <DATE>");
+                    break;
+                }
+                int[] selected = Selection.resolve(arg, tasks.view());
+                List<Integer> indices = new ArrayList<>(selected.length); // zero-based, descending
+                for (int i = selected.length - 1; i >= 0; i--) {
+                    indices.add(selected[i]);
+                }
+                if (indices.size() == 1) {
+                    int index = indices.get(0);
+                    Task removed = tasks.removeAt(index);
+                    storage.recordDelete(indices, tasks.view());
+                    undoLog.record(UndoLog.deleted(indices, List.of(removed)));
+                    ui.removed(removed, tasks.size());
+                } else if (indices.isEmpty()) {
+                    ui.removedMany(List.of(), tasks.size());
+                } else {
+                    List<Task> removed = tasks.removeManyDescending(indices);
+                    storage.recordDelete(indices, tasks.view());
+                    undoLog.record(UndoLog.deleted(indices, removed));
+                    ui.removedMany(removed, tasks.size());
+                }
+                break;
             }
+
+            case ON: {
+                String raw = parsed.argOrEmpty().trim();
+                var targetDate = DateTimeUtil.tryParseToLocalDate(raw);
+                if (targetDate == null) {
+                    ui.error("Unrecognized date.\nUse: on <DATE or DATE TIME>\n"
+                            + "Examples: on 2019-12-02  |  on 2/12/2019");
+                    break;
+                }
+                ui.onDate(targetDate, tasks.onDate(targetDate));
+                break;
+            }
+
+            case FIND: {
+                String keyword = parsed.argOrEmpty().trim();
+                if (keyword.isEmpty()) {
+                    ui.error("I do not understand this input format.\n"
+                            + "Find requires a keyword. "
+                            + "Use: find <KEYWORD>");
+                    break;
+                }
+                ui.matches(tasks.find(keyword));
+                break;
+            }
+
+            case UNDO: {
+                ui.history("Undid", undoLog.undo(tasks, storage), tasks.size());
+                break;
+            }
+
+            case REDO: {
+                ui.history("Redid", undoLog.redo(tasks, storage), tasks.size());
+                break;
+            }
+
+            case UPCOMING: {
+                int limit = Parser.parseCount(parsed.argOrEmpty(), CommandProcessor.DEFAULT_UPCOMING);
+                ui.dueList("Here are your next deadlines:", "No upcoming deadlines.",
+                        tasks.upcoming(LocalDateTime.now(), limit));
+                break;
+            }
+
+            case OVERDUE: {
+                ui.dueList("These deadlines have passed:", "Nothing is overdue.",
+                        tasks.overdue(LocalDateTime.now()));
+                break;
+            }
+
+            case BETWEEN: {
+                LocalDate[] range = DateTimeUtil.tryParseDateRange(parsed.argOrEmpty());
+                if (range == null) {
+                    ui.error("Unrecognized date range.\nUse: between <DATE> <DATE>\n"
+                            + "Example: between 2019-12-01 2019-12-31");
+                    break;
+                }
+                String span = DateTimeUtil.pretty(range[0]) + " and " + DateTimeUtil.pretty(range[1]);
+                ui.dueList("Deadlines between " + span + ":", "No deadlines between " + span + ".",
+                        tasks.between(range[0], range[1]));
+                break;
+            }
+
+            case UNKNOWN:
+            default:
+                ui.error("I do not understand this command: \""
+                        + rawLine
+                        + "\".\nTry: list, todo, deadline, event, "
+                        + "mark N, unmark N, delete N, find <KEYWORD>, "
+                        + "upcoming [N], overdue, between <DATE> <DATE>, undo, redo, bye.");
+                break;
+            }
+        } catch (TkitException e) {
+            ui.error(e.getMessage());
+        } catch (Exception e) {
+            ui.error("Error: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Marks or unmarks every task the selection names, persisting once for the whole selection.
+     *
+     * @param arg selection, see {@link Selection}
+     * @param status status to set
+     * @param tasks task list to edit
+     * @param undoLog history to record the edit in
+     * @throws TkitException if the selection is malformed or out of range
+     */
+    private static void changeStatus(String arg, Status status, TaskList tasks, UndoLog undoLog)
+            throws TkitException {
+        if (arg.isEmpty()) {
+            throw new TkitException("Task number required. Please try: mark <N[, M-K, ...]>,"
+                    + " mark done | undone | all, or mark before <DATE>");
         }
-        if (!oob.isEmpty()) {
-            String bad = oob.stream().sorted().map(String::valueOf)
-                    .reduce((a, b) -> a + ", " + b).orElse("");
-            throw new TkitException("These task number(s) do not exist: " + bad + ". No tasks were deleted.");
+        int[] selected = Selection.resolve(arg, tasks.view());
+        int[] changed = tasks.setStatusAll(selected, status);
+        storage.recordStatusAll(changed, status, tasks.view());
+        if (changed.length > 0) {
+            undoLog.record(UndoLog.statusChanged(changed, status));
         }
-        java.util.Set<Integer> uniq = new java.util.HashSet<>(oneBased);
-        java.util.List<Integer> zeroBased = new java.util.ArrayList<>();
-        for (int ob : uniq) {
-            zeroBased.add(ob - 1);
+        if (selected.length != 1) {
+            ui.markedMany(selected.length, changed.length, status);
+        } else if (status == Status.DONE) {
+            ui.marked(tasks.get(selected[0]));
+        } else {
+            ui.unmarked(tasks.get(selected[0]));
         }
-        zeroBased.sort(java.util.Collections.reverseOrder());
-        return zeroBased;
     }
-
 }
@@ -6,4 +6,9 @@ class Todo extends Task {
     public Todo(String description) {
         super(TaskType.TODO, description);
     }
+
+    @Override
+    protected Task copy() {
+        return new Todo(description);
+    }
 }
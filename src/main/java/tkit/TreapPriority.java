@@ -0,0 +1,23 @@
+package tkit;
+
+/**
+ * Heap priorities for the treaps behind {@link IndexedTaskTree} and {@link IntervalTree}.
+ * A treap stays balanced in expectation only if priorities look random, but both trees derive theirs from a
+ * counter or an order key so that the shape is deterministic; this mixer spreads those sequential values out.
+ */
+final class TreapPriority {
+
+    private TreapPriority() { }
+
+    /**
+     * Returns a well-spread priority for a sequential value, using the SplitMix64 finaliser.
+     *
+     * @param z counter value or order key
+     * @return mixed priority
+     */
+    static long of(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
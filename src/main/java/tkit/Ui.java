@@ -1,5 +1,7 @@
 package tkit;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -8,10 +10,12 @@ import java.util.List;
  * Responsibilities:
  *   Printing banners, lists, confirmation messages, and errors
  *   Rendering filtered task results for search/date queries
- * This class is stateless and side-effect free except for standard output.
+ * Holds no state except a count of the errors it has printed; its only side effect is standard output.
  */
 final class Ui {
 
+    private int errorCount;
+
     /**
      * Prints the startup banner.
      *
@@ -23,6 +27,15 @@ final class Ui {
         System.out.println("We are an adult person! \n____________________\n");
     }
 
+    /**
+     * Prints a reminder block in one write, since it arrives from the reminder thread while the user may be typing.
+     *
+     * @param text reminder text
+     */
+    void reminder(String text) {
+        System.out.print("____________________\n\n" + text + "\n____________________\n\n");
+    }
+
     /** Prints the termination banner. */
     void exit() {
         System.out.println("____________________\n");
@@ -31,19 +44,25 @@ final class Ui {
     }
 
     /**
-     * Renders the current task list.
+     * Renders one page of the task list, streaming lines to standard output in chunks.
      *
      * @param tasks ordered view of all tasks
+     * @param page range of the list to print; see {@link ListRenderer#parse(String, int)}
      */
-    void list(List<Task> tasks) {
-        assert tasks != null;
+    void list(List<Task> tasks, ListRenderer.Page page) {
+        assert tasks != null && page != null;
         System.out.println("____________________\n");
         if (tasks.isEmpty()) {
             System.out.println("There are no entries yet.");
         } else {
             System.out.println("Here are the tasks in your list:");
-            for (int i = 0; i < tasks.size(); i++) {
-                System.out.println((i + 1) + ". " + tasks.get(i));
+            try {
+                ListRenderer.write(tasks, page, System.out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!page.isWhole()) {
+                System.out.println(ListRenderer.footer(page, tasks.size()));
             }
         }
         System.out.println("____________________\n");
@@ -90,6 +109,26 @@ final class Ui {
         System.out.println("____________________\n");
     }
 
+    /**
+     * Prints the confirmation block for a mark or unmark that selected several tasks.
+     *
+     * @param selected number of tasks the selection named
+     * @param changed number of those whose status actually changed
+     * @param status the status they now have
+     */
+    void markedMany(int selected, int changed, Status status) {
+        assert selected >= 0 && changed >= 0 && changed <= selected;
+        System.out.println("____________________\n");
+        if (selected == 0) {
+            System.out.println("No tasks matched.");
+        } else {
+            String state = status == Status.DONE ? "done" : "not done";
+            System.out.println("OK, I've marked " + selected + " task(s) as " + state + "; "
+                    + (selected - changed) + " already were.");
+        }
+        System.out.println("____________________\n");
+    }
+
     /**
      * Prints the "removed" confirmation block.
      *
@@ -144,6 +183,67 @@ final class Ui {
         System.out.println("____________________\n");
     }
 
+    /**
+     * Renders a list of deadlines under a heading, or a fallback line if there are none.
+     *
+     * @param heading line printed above the hits
+     * @param none line printed when {@code hits} is empty
+     * @param hits ordered list of tasks to show
+     */
+    void dueList(String heading, String none, List<Task> hits) {
+        assert heading != null && none != null && hits != null;
+        System.out.println("____________________\n");
+        if (hits.isEmpty()) {
+            System.out.println(none);
+        } else {
+            System.out.println(heading);
+            for (int i = 0; i < hits.size(); i++) {
+                System.out.println((i + 1) + ". " + hits.get(i));
+            }
+        }
+        System.out.println("____________________\n");
+    }
+
+    /**
+     * Prints the confirmation for an undo or redo.
+     *
+     * @param verb {@code Undid} or {@code Redid}
+     * @param edit edit that was reverted or re-applied
+     * @param newSize resulting list size
+     */
+    void history(String verb, UndoLog.Edit edit, int newSize) {
+        assert verb != null && edit != null && newSize >= 0;
+        System.out.println("____________________\n");
+        System.out.println(verb + " " + edit.describe() + ".");
+        System.out.println("Now you have " + newSize + " tasks in the list.");
+        System.out.println("____________________\n");
+    }
+
+    /**
+     * Returns how many error blocks have been printed so far.
+     *
+     * @return error count
+     */
+    int errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Prints the summary at the end of a batch run.
+     *
+     * @param lines command lines executed
+     * @param errors commands that failed
+     * @param saves snapshots written
+     * @param nanos elapsed wall-clock time
+     */
+    void batchSummary(long lines, int errors, int saves, long nanos) {
+        double seconds = Math.max(nanos, 1) / 1e9;
+        System.out.println("____________________\n");
+        System.out.printf("Batch finished: %,d command(s), %,d error(s), %d save(s)%n", lines, errors, saves);
+        System.out.printf("Elapsed %.3f s, %,.0f commands/s%n", seconds, lines / seconds);
+        System.out.println("____________________\n");
+    }
+
     /**
      * Prints an error block with the provided message.
      *
@@ -151,6 +251,7 @@ final class Ui {
      */
     void error(String msg) {
         assert msg != null;
+        errorCount++;
         System.out.println("____________________\n");
         System.out.println(msg);
         System.out.println("____________________\n");
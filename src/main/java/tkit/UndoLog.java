@@ -0,0 +1,300 @@
+package tkit;
+
+import java.util.List;
+
+/**
+ * Bounded undo/redo history of list edits.
+ * Responsibilities:
+ *   Keep the most recent edits in a fixed-size ring buffer, dropping the oldest once it is full
+ *   Undo an edit by applying its inverse to the {@link TaskList}, and redo it by applying it again
+ *   Persist every undo and redo through the same {@link Storage} journal records as ordinary commands
+ * Each entry holds only what its inverse needs (positions, plus the tasks an add or delete moved),
+ * never a copy of the list, so memory does not grow with the list size. A committed transaction is
+ * kept as one {@link Kind#BATCH} entry, so it is undone and redone as a unit.
+ * Recording a new edit discards anything that could have been redone.
+ */
+final class UndoLog {
+
+    /** Number of edits kept when no capacity is given. */
+    static final int DEFAULT_CAPACITY = 100;
+
+    /** Kinds of reversible edit. */
+    enum Kind { ADD, DELETE, STATUS, BATCH }
+
+    /** One reversible edit, described in its forward direction. */
+    static final class Edit {
+        final Kind kind;
+        /** Affected positions, ascending; after the edit for ADD, before it for DELETE. */
+        final int[] positions;
+        /** Tasks added or deleted, matching {@link #positions}; empty for STATUS. */
+        final Task[] tasks;
+        final Status before;
+        final Status after;
+        /** Edits of a BATCH, in the order they were applied; empty otherwise. */
+        final Edit[] parts;
+
+        private Edit(Kind kind, int[] positions, Task[] tasks, Status before, Status after, Edit[] parts) {
+            this.kind = kind;
+            this.positions = positions;
+            this.tasks = tasks;
+            this.before = before;
+            this.after = after;
+            this.parts = parts;
+        }
+
+        private Edit(Kind kind, int[] positions, Task[] tasks, Status before, Status after) {
+            this(kind, positions, tasks, before, after, new Edit[0]);
+        }
+
+        /** Returns a short user-facing description, e.g. {@code delete of 3 task(s)}. */
+        String describe() {
+            switch (kind) {
+            case ADD:
+                return "add of \"" + tasks[0].description + "\"";
+            case DELETE:
+                return "delete of " + tasks.length + " task(s)";
+            case BATCH:
+                return "transaction of " + parts.length + " change(s)";
+            default:
+                String verb = after == Status.DONE ? "mark " : "unmark ";
+                return positions.length == 1 ? verb + (positions[0] + 1) : verb + "of " + positions.length + " task(s)";
+            }
+        }
+    }
+
+    private final Edit[] ring;
+    private int start;
+    private int undoable;
+    private int redoable;
+
+    /** Creates a log holding up to {@link #DEFAULT_CAPACITY} edits. */
+    UndoLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a log holding up to {@code capacity} edits.
+     *
+     * @param capacity maximum number of edits kept; must be positive
+     */
+    UndoLog(int capacity) {
+        assert capacity > 0 : "UndoLog(): capacity must be positive";
+        this.ring = new Edit[capacity];
+    }
+
+    /**
+     * Builds the edit for a task appended at {@code position}.
+     *
+     * @param position zero-based index the task now occupies
+     * @param t task that was added
+     * @return the edit
+     */
+    static Edit added(int position, Task t) {
+        return new Edit(Kind.ADD, new int[] {position}, new Task[] {t}, null, null);
+    }
+
+    /**
+     * Builds the edit for a delete, from the arguments and result of {@link TaskList#removeManyDescending(List)}.
+     *
+     * @param zeroBasedDescending removed positions, strictly descending
+     * @param removed removed tasks, in the same order
+     * @return the edit
+     */
+    static Edit deleted(List<Integer> zeroBasedDescending, List<Task> removed) {
+        assert zeroBasedDescending.size() == removed.size() : "deleted(): one task per position";
+        int n = removed.size();
+        int[] positions = new int[n];
+        Task[] tasks = new Task[n];
+        for (int i = 0; i < n; i++) {
+            positions[n - 1 - i] = zeroBasedDescending.get(i);
+            tasks[n - 1 - i] = removed.get(i);
+        }
+        return new Edit(Kind.DELETE, positions, tasks, null, null);
+    }
+
+    /**
+     * Builds the edit for a mark or unmark.
+     *
+     * @param position zero-based index of the task
+     * @param before status before the command
+     * @param after status after the command
+     * @return the edit
+     */
+    static Edit statusChanged(int position, Status before, Status after) {
+        return new Edit(Kind.STATUS, new int[] {position}, new Task[0], before, after);
+    }
+
+    /**
+     * Builds the edit for a bulk mark or unmark, from the result of {@link TaskList#setStatusAll(int[], Status)}.
+     *
+     * @param changed ascending positions whose status changed; all had the other status before
+     * @param after status after the command
+     * @return the edit
+     */
+    static Edit statusChanged(int[] changed, Status after) {
+        Status before = after == Status.DONE ? Status.NOT_DONE : Status.DONE;
+        return new Edit(Kind.STATUS, changed, new Task[0], before, after);
+    }
+
+    /**
+     * Builds one edit out of several applied in sequence, e.g. by a transaction.
+     *
+     * @param parts edits in the order they were applied
+     * @return the combined edit
+     */
+    static Edit batch(List<Edit> parts) {
+        return new Edit(Kind.BATCH, new int[0], new Task[0], null, null, parts.toArray(new Edit[0]));
+    }
+
+    /**
+     * Records an edit that has just been applied, discarding any redo history.
+     *
+     * @param e edit to record
+     */
+    void record(Edit e) {
+        assert e != null : "record(): edit must not be null";
+        if (undoable == ring.length) {
+            ring[start] = null;
+            start = (start + 1) % ring.length;
+            undoable--;
+        }
+        ring[(start + undoable) % ring.length] = e;
+        undoable++;
+        for (int i = 0; i < redoable; i++) {
+            ring[(start + undoable + i) % ring.length] = null;
+        }
+        redoable = 0;
+    }
+
+    /** True if there is an edit to undo. */
+    boolean canUndo() {
+        return undoable > 0;
+    }
+
+    /** True if there is an edit to redo. */
+    boolean canRedo() {
+        return redoable > 0;
+    }
+
+    /**
+     * Reverts the most recent edit and journals the change.
+     *
+     * @param tasks list the edit was applied to
+     * @param storage storage to record the change in
+     * @return the edit that was reverted
+     * @throws TkitException if there is nothing to undo
+     */
+    Edit undo(TaskList tasks, Storage storage) throws TkitException {
+        if (undoable == 0) {
+            throw new TkitException("Nothing to undo.");
+        }
+        undoable--;
+        redoable++;
+        Edit e = ring[(start + undoable) % ring.length];
+        revert(e, tasks, storage);
+        return e;
+    }
+
+    /**
+     * Re-applies the most recently undone edit and journals the change.
+     *
+     * @param tasks list the edit was applied to
+     * @param storage storage to record the change in
+     * @return the edit that was re-applied
+     * @throws TkitException if there is nothing to redo
+     */
+    Edit redo(TaskList tasks, Storage storage) throws TkitException {
+        if (redoable == 0) {
+            throw new TkitException("Nothing to redo.");
+        }
+        Edit e = ring[(start + undoable) % ring.length];
+        undoable++;
+        redoable--;
+        reapply(e, tasks, storage);
+        return e;
+    }
+
+    /**
+     * Applies the inverse of an edit and journals the change.
+     *
+     * @param e edit to revert; it must be the latest edit still applied to {@code tasks}
+     * @param tasks list the edit was applied to
+     * @param storage storage to record the change in
+     */
+    static void revert(Edit e, TaskList tasks, Storage storage) {
+        switch (e.kind) {
+        case ADD:
+            removeAll(tasks, storage, e.positions);
+            break;
+        case DELETE:
+            insertAll(tasks, storage, e);
+            break;
+        case BATCH:
+            for (int i = e.parts.length - 1; i >= 0; i--) {
+                revert(e.parts[i], tasks, storage);
+            }
+            break;
+        default:
+            setStatus(tasks, storage, e.positions, e.before);
+            break;
+        }
+    }
+
+    /**
+     * Applies an edit again after it was reverted, and journals the change.
+     *
+     * @param e edit to re-apply
+     * @param tasks list the edit was reverted on
+     * @param storage storage to record the change in
+     */
+    static void reapply(Edit e, TaskList tasks, Storage storage) {
+        switch (e.kind) {
+        case ADD:
+            insertAll(tasks, storage, e);
+            break;
+        case DELETE:
+            removeAll(tasks, storage, e.positions);
+            break;
+        case BATCH:
+            for (Edit part : e.parts) {
+                reapply(part, tasks, storage);
+            }
+            break;
+        default:
+            setStatus(tasks, storage, e.positions, e.after);
+            break;
+        }
+    }
+
+    /**
+     * Puts each task back at its position; ascending order makes every position valid when reached.
+     * Past {@link Storage#BULK_SNAPSHOT_THRESHOLD} tasks the result is saved as one snapshot, not one record each.
+     */
+    private static void insertAll(TaskList tasks, Storage storage, Edit e) {
+        boolean isBulk = e.positions.length > Storage.BULK_SNAPSHOT_THRESHOLD;
+        for (int i = 0; i < e.positions.length; i++) {
+            tasks.insert(e.positions[i], e.tasks[i]);
+            if (!isBulk) {
+                storage.recordInsert(e.positions[i], e.tasks[i], tasks.view());
+            }
+        }
+        if (isBulk) {
+            storage.recordBulk(tasks.view());
+        }
+    }
+
+    private static void removeAll(TaskList tasks, Storage storage, int[] ascending) {
+        Integer[] descending = new Integer[ascending.length];
+        for (int i = 0; i < ascending.length; i++) {
+            descending[ascending.length - 1 - i] = ascending[i];
+        }
+        List<Integer> indices = List.of(descending);
+        tasks.removeManyDescending(indices);
+        storage.recordDelete(indices, tasks.view());
+    }
+
+    private static void setStatus(TaskList tasks, Storage storage, int[] positions, Status status) {
+        int[] changed = tasks.setStatusAll(positions, status);
+        storage.recordStatusAll(changed, status, tasks.view());
+    }
+}
@@ -0,0 +1,168 @@
+package tkit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Named task lists, each with its own data file, kept in memory only while they are in use.
+ * Responsibilities:
+ *   Map a workspace name to its file: {@code default} is {@code data/Tkit.txt}, any other name {@code N} is
+ *   {@code data/workspaces/N.txt}
+ *   Load a workspace the first time it is opened, not at startup
+ *   Keep opened workspaces in least-recently-used order and, once their estimated heap use passes the budget,
+ *   flush and drop the idle ones from the least recently used end
+ * Undo history belongs to a workspace and is lost when it is evicted; the tasks themselves are on disk.
+ * Not thread-safe: call from the thread that runs commands.
+ */
+final class Workspaces {
+
+    /** Workspace opened at startup, stored at the original {@code data/Tkit.txt}. */
+    static final String DEFAULT_NAME = "default";
+
+    /** System property giving the heap budget for resident workspaces, in MiB. */
+    static final String BUDGET_PROPERTY = "tkit.workspace.budget";
+
+    /** Budget in MiB when the property is unset or invalid. */
+    static final long DEFAULT_BUDGET_MIB = 64;
+
+    /** Estimated heap bytes per task beyond its description: tree node, index entries, order key, dates. */
+    static final long TASK_OVERHEAD_BYTES = 320;
+
+    private static final Pattern NAME = Pattern.compile("[a-z0-9_-]{1,32}");
+
+    /** One resident workspace: its list, the storage behind it and its undo history. */
+    static final class Workspace {
+        final String name;
+        final Storage storage;
+        final TaskList tasks;
+        final UndoLog undoLog = new UndoLog();
+
+        private Workspace(String name, Storage storage) {
+            this.name = name;
+            this.storage = storage;
+            List<Task> loaded = storage.load();
+            assert loaded != null : "Storage.load() must return non-null list";
+            this.tasks = new TaskList(loaded);
+        }
+
+        /** Rough heap use of the list; strings count two bytes per character. */
+        long footprint() {
+            long bytes = 0;
+            for (Task t : tasks.view()) {
+                bytes += TASK_OVERHEAD_BYTES + 2L * t.description.length();
+            }
+            return bytes;
+        }
+    }
+
+    private final Path dataDir;
+    private final long budgetBytes;
+    /** Resident workspaces, least recently used first. */
+    private final LinkedHashMap<String, Workspace> resident = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Creates workspaces under {@code data/} with the configured budget. */
+    Workspaces() {
+        this(Path.of("data"), budgetFromConfig() << 20);
+    }
+
+    /**
+     * Creates workspaces under a given directory.
+     *
+     * @param dataDir directory holding {@code Tkit.txt} and the {@code workspaces/} folder
+     * @param budgetBytes estimated heap bytes resident workspaces may use before idle ones are evicted
+     */
+    Workspaces(Path dataDir, long budgetBytes) {
+        assert dataDir != null : "Workspaces(): dataDir must not be null";
+        assert budgetBytes >= 0 : "Workspaces(): budget must be non-negative";
+        this.dataDir = dataDir;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Normalises and checks a workspace name.
+     *
+     * @param raw name as typed
+     * @return lower-case name
+     * @throws TkitException if the name is not 1-32 letters, digits, {@code -} or {@code _}
+     */
+    static String validate(String raw) throws TkitException {
+        String name = raw == null ? "" : raw.trim().toLowerCase(Locale.ROOT);
+        if (!NAME.matcher(name).matches()) {
+            throw new TkitException("Workspace names use 1-32 letters, digits, - or _. Received: \"" + raw + "\"");
+        }
+        return name;
+    }
+
+    /**
+     * Returns a workspace, loading it if it is not resident, and makes it the most recently used.
+     * Opening a workspace may evict others, never the one returned.
+     *
+     * @param name name already passed through {@link #validate(String)}
+     * @return the workspace
+     */
+    Workspace open(String name) {
+        assert NAME.matcher(name).matches() : "open(): name must be validated";
+        Workspace ws = resident.get(name);
+        if (ws == null) {
+            ws = new Workspace(name, new Storage(fileOf(name), Storage.DEFAULT_COMPACT_THRESHOLD,
+                    Durability.fromConfig(), SnapshotFormat.fromConfig()));
+            resident.put(name, ws);
+        }
+        evictIdle(ws);
+        return ws;
+    }
+
+    /** Returns the names of resident workspaces, least recently used first. */
+    List<String> residentNames() {
+        return new ArrayList<>(resident.keySet());
+    }
+
+    /** Blocks until every resident workspace has written its pending saves. */
+    void flushAll() {
+        for (Workspace ws : resident.values()) {
+            ws.storage.flush();
+        }
+    }
+
+    private Path fileOf(String name) {
+        return name.equals(DEFAULT_NAME) ? dataDir.resolve("Tkit.txt")
+                : dataDir.resolve("workspaces").resolve(name + ".txt");
+    }
+
+    /** Flushes and drops least recently used workspaces other than {@code keep} until under budget. */
+    private void evictIdle(Workspace keep) {
+        long total = 0;
+        Map<Workspace, Long> sizes = new LinkedHashMap<>();
+        for (Workspace ws : resident.values()) {
+            long size = ws.footprint();
+            sizes.put(ws, size);
+            total += size;
+        }
+        Iterator<Workspace> lru = resident.values().iterator();
+        while (total > budgetBytes && lru.hasNext()) {
+            Workspace ws = lru.next();
+            if (ws == keep) {
+                continue;
+            }
+            ws.storage.close();
+            lru.remove();
+            total -= sizes.get(ws);
+        }
+    }
+
+    private static long budgetFromConfig() {
+        String value = System.getProperty(BUDGET_PROPERTY);
+        try {
+            long mib = value == null ? DEFAULT_BUDGET_MIB : Long.parseLong(value.trim());
+            return mib >= 0 ? mib : DEFAULT_BUDGET_MIB;
+        } catch (NumberFormatException e) {
+            return DEFAULT_BUDGET_MIB;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package tkit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single background writer that takes persistence work off the command path.
+ * Responsibilities:
+ *   Queue snapshot and journal writes in submission order
+ *   Merge back-to-back requests: a snapshot supersedes everything queued before it,
+ *   and consecutive journal records are written (and forced) as one group
+ *   Let callers wait for everything submitted so far via {@link #flush()}
+ * Under {@link Durability#COMMIT} each submission waits until its write has been forced to disk.
+ */
+final class WriteBehindSaver {
+
+    /** Destination for the merged writes; invoked only on the writer thread. */
+    interface Sink {
+        /**
+         * Writes a full snapshot, replacing the data file and resetting the journal.
+         *
+         * @param tasks immutable snapshot to write
+         * @param isSynced whether the file must be forced to disk before it is moved into place
+         */
+        void writeSnapshot(List<Task> tasks, boolean isSynced);
+
+        /**
+         * Appends a group of journal records in order.
+         *
+         * @param records encoded records
+         * @param isSynced whether the journal must be forced to disk after the group
+         */
+        void appendRecords(List<String> records, boolean isSynced);
+    }
+
+    private final Sink sink;
+    private final Durability durability;
+    private final Object lock = new Object();
+
+    /** Pending work: either a {@code String} record or a {@code List<Task>} snapshot. */
+    private List<Object> queue = new ArrayList<>();
+    private long submitted;
+    private long completed;
+    private Thread writer;
+
+    /**
+     * Creates a saver; the writer thread starts on the first submission.
+     *
+     * @param sink destination for the writes
+     * @param durability how often writes are forced to disk
+     */
+    WriteBehindSaver(Sink sink, Durability durability) {
+        assert sink != null && durability != null : "WriteBehindSaver(): arguments must not be null";
+        this.sink = sink;
+        this.durability = durability;
+    }
+
+    /**
+     * Queues a full snapshot. Any queued work before it becomes redundant and is dropped.
+     *
+     * @param snapshot immutable list of tasks to write
+     */
+    void submitSnapshot(List<Task> snapshot) {
+        assert snapshot != null : "submitSnapshot(): snapshot must not be null";
+        submit(snapshot);
+    }
+
+    /**
+     * Queues one journal record.
+     *
+     * @param record encoded record
+     */
+    void submitRecord(String record) {
+        assert record != null : "submitRecord(): record must not be null";
+        submit(record);
+    }
+
+    private void submit(Object work) {
+        long ticket;
+        synchronized (lock) {
+            queue.add(work);
+            ticket = ++submitted;
+            ensureWriter();
+            lock.notifyAll();
+        }
+        if (durability == Durability.COMMIT) {
+            awaitCompleted(ticket);
+        }
+    }
+
+    /** Blocks until every write submitted before this call has been handed to the sink. */
+    void flush() {
+        long target;
+        synchronized (lock) {
+            target = submitted;
+        }
+        awaitCompleted(target);
+    }
+
+    /**
+     * Writes everything still queued, then stops the writer thread. Nothing may be submitted afterwards.
+     */
+    void close() {
+        flush();
+        Thread stopping;
+        synchronized (lock) {
+            stopping = writer;
+            writer = null;
+        }
+        if (stopping == null) {
+            return;
+        }
+        // the queue is drained, so the writer is idle or about to wait, and the interrupt ends its loop there
+        stopping.interrupt();
+        try {
+            stopping.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitCompleted(long ticket) {
+        synchronized (lock) {
+            while (completed < ticket) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void ensureWriter() {
+        assert Thread.holdsLock(lock);
+        if (writer != null) {
+            return;
+        }
+        writer = new Thread(this::drainForever, "tkit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writer loop. Every drained batch counts as completed even if writing it throws, so waiters never hang; if an
+     * {@link Error} ends the thread, a new writer is started for work still queued, or by the next submission.
+     */
+    private void drainForever() {
+        try {
+            while (true) {
+                List<Object> batch;
+                synchronized (lock) {
+                    while (queue.isEmpty()) {
+                        try {
+                            lock.wait();
+                        } catch (InterruptedException ie) {
+                            return;
+                        }
+                    }
+                    batch = queue;
+                    queue = new ArrayList<>();
+                }
+                try {
+                    write(batch);
+                } catch (RuntimeException ex) {
+                    System.out.println("____________________\n");
+                    System.out.println("Warning: background save failed: " + ex.getMessage());
+                    System.out.println("____________________\n");
+                } finally {
+                    synchronized (lock) {
+                        completed += batch.size();
+                        lock.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                if (writer == Thread.currentThread()) {
+                    writer = null;
+                    if (!queue.isEmpty()) {
+                        ensureWriter();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Writes one drained batch: the newest snapshot, if any, then the records queued after it. */
+    @SuppressWarnings("unchecked")
+    private void write(List<Object> batch) {
+        int start = 0;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (batch.get(i) instanceof List) {
+                sink.writeSnapshot((List<Task>) batch.get(i), durability.isSynced());
+                start = i + 1;
+                break;
+            }
+        }
+        if (start == batch.size()) {
+            return;
+        }
+        List<String> records = new ArrayList<>(batch.size() - start);
+        for (int i = start; i < batch.size(); i++) {
+            records.add((String) batch.get(i));
+        }
+        sink.appendRecords(records, durability.isSynced());
+    }
+}
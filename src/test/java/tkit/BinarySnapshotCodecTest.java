@@ -0,0 +1,73 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BinarySnapshotCodec}.
+ */
+class BinarySnapshotCodecTest {
+
+    private static List<Task> sample() {
+        Todo t = new Todo("read | book \\ ünïcode");
+        t.markAsDone();
+        Deadline d = new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0));
+        Event e = new Event("moon landing",
+                LocalDateTime.of(1969, 7, 20, 20, 17),
+                LocalDateTime.of(1969, 7, 21, 2, 56));
+        return List.of(t, d, e);
+    }
+
+    /**
+     * Verifies type, status, description and dates survive a round trip, including pre-1970 dates.
+     */
+    @Test
+    void writeThenRead_roundTrips() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySnapshotCodec.write(out, sample(), 7);
+        byte[] data = out.toByteArray();
+
+        assertTrue(BinarySnapshotCodec.isBinary(data));
+        assertEquals(7, BinarySnapshotCodec.readGeneration(data));
+
+        List<Task> loaded = new ArrayList<>();
+        assertEquals(0, BinarySnapshotCodec.read(data, loaded));
+        assertEquals(3, loaded.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(sample().get(i).toString(), loaded.get(i).toString());
+        }
+    }
+
+    /**
+     * Verifies a truncated file keeps the records before the cut and counts the rest as corrupted.
+     */
+    @Test
+    void read_truncatedData_countsRemainingRecordsAsCorrupted() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySnapshotCodec.write(out, sample(), 1);
+        byte[] data = out.toByteArray();
+        byte[] cut = Arrays.copyOf(data, data.length - 3);
+
+        List<Task> loaded = new ArrayList<>();
+        assertEquals(1, BinarySnapshotCodec.read(cut, loaded));
+        assertEquals(2, loaded.size());
+    }
+
+    /**
+     * Verifies text data is not mistaken for a binary snapshot.
+     */
+    @Test
+    void isBinary_rejectsTextSnapshot() {
+        assertFalse(BinarySnapshotCodec.isBinary("# Tkit save".getBytes()));
+        assertFalse(BinarySnapshotCodec.isBinary(new byte[] {'T', 'K'}));
+    }
+}
@@ -0,0 +1,78 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link ChunkedSnapshotReader}, checked against the serial {@link Storage} loader.
+ */
+class ChunkedSnapshotReaderTest {
+
+    @TempDir
+    Path tmp;
+
+    /**
+     * Verifies that small chunks produce the same tasks, in the same order, and the same
+     * corrupted-line count as the serial reader, including CRLF line endings.
+     */
+    @Test
+    void read_matchesSerialLoader() throws Exception {
+        StringBuilder sb = new StringBuilder("# Tkit save\n# gen 1\n");
+        for (int i = 0; i < 3000; i++) {
+            switch (i % 5) {
+            case 0:
+                sb.append("T | 1 | todo ").append(i).append(" with \\| pipe\r\n");
+                break;
+            case 1:
+                sb.append("D | 0 | deadline ").append(i).append(" | 2019-12-02T18:00\n");
+                break;
+            case 2:
+                sb.append("E | 0 | event ").append(i).append(" | 2019-12-02T14:00 | 2019-12-03T16:00\n");
+                break;
+            case 3:
+                sb.append("D | 0 | broken ").append(i).append("\n\n");
+                break;
+            default:
+                sb.append("X | 7 | nonsense\n");
+                break;
+            }
+        }
+        Path data = tmp.resolve("Tkit.txt");
+        Files.writeString(data, sb.toString());
+
+        Storage serial = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD);
+        List<Task> expected = serial.load();
+
+        List<Task> actual = new ArrayList<>();
+        int corrupted = ChunkedSnapshotReader.read(data, serial::decodeLine, actual, 1024);
+
+        assertEquals(1200, corrupted);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    /**
+     * Verifies the end of a file without a trailing newline is still read.
+     */
+    @Test
+    void read_handlesMissingTrailingNewline() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Files.writeString(data, "T | 0 | a\nT | 0 | b");
+
+        List<Task> actual = new ArrayList<>();
+        int corrupted = ChunkedSnapshotReader.read(data, new Storage(data, 0)::decodeLine, actual, 4);
+
+        assertEquals(0, corrupted);
+        assertEquals(2, actual.size());
+        assertEquals("[T][ ] b", actual.get(1).toString());
+    }
+}
@@ -4,7 +4,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Integration-style unit tests for {@link CommandProcessor}.
@@ -12,6 +15,9 @@ import org.junit.jupiter.api.Test;
  */
 class CommandProcessorTest {
 
+    @TempDir
+    Path tmp;
+
     /**
      * Verifies list → add → list includes the new task.
      */
@@ -89,4 +95,158 @@ class CommandProcessorTest {
         assertTrue(end > start, "Malformed count segment");
         return Integer.parseInt(block.substring(start, end));
     }
+
+    /**
+     * Verifies the due-date queries answer and reject malformed arguments.
+     */
+    @Test
+    void handle_upcomingOverdueBetween() {
+        CommandProcessor cp = new CommandProcessor();
+        cp.handle("deadline file taxes /by 2019-04-15 2359");
+
+        String between = cp.handle("between 2019-04-01 2019-04-30");
+        assertTrue(between.contains("Deadlines between"));
+        assertTrue(between.contains("file taxes"));
+        assertTrue(cp.handle("overdue").contains("file taxes"));
+        assertFalse(cp.handle("upcoming 3").contains("file taxes"));
+
+        assertTrue(cp.handle("upcoming 0").contains("Count must be positive"));
+        assertTrue(cp.handle("between 2019-04-01").contains("Unrecognized date range"));
+    }
+
+    /**
+     * Verifies delete can be undone and redone through the command interface.
+     */
+    @Test
+    void handle_undoRedoDelete() {
+        CommandProcessor cp = new CommandProcessor();
+        int count = extractCount(cp.handle("todo undo target"));
+
+        assertTrue(cp.handle("delete " + count).contains("undo target"));
+        assertFalse(cp.handle("list").contains("undo target"));
+        assertTrue(cp.handle("undo").contains("Undid delete of 1 task(s)"));
+        assertTrue(cp.handle("list page " + ((count - 1) / ListRenderer.DEFAULT_PAGE_SIZE + 1))
+                .contains(count + ". [T][ ] undo target"));
+        assertTrue(cp.handle("redo").contains("Redid delete of 1 task(s)"));
+        assertTrue(cp.handle("redo").contains("Nothing to redo."));
+    }
+
+    /**
+     * Verifies a ; sequence that fails part-way leaves the list as it was.
+     */
+    @Test
+    void handle_failingSequence_revertsEarlierCommands() {
+        CommandProcessor cp = new CommandProcessor();
+        String before = cp.handle("list");
+
+        String out = cp.handle("todo seq first; todo seq second; mark 0");
+        assertTrue(out.contains("Command 3 of 3 failed; reverted 2 change(s)."));
+        assertTrue(cp.handle("list").equals(before));
+
+        assertTrue(cp.handle("todo seq ok; todo seq ok too").contains("seq ok too"));
+        assertTrue(cp.handle("list").contains("seq ok too"));
+        assertTrue(cp.handle("undo").contains("Undid transaction of 2 change(s)"));
+        assertTrue(cp.handle("list").equals(before));
+    }
+
+    /**
+     * Verifies an escaped semicolon stays in the description, is saved and loads back, and does not split.
+     */
+    @Test
+    void handle_escapedSemicolon_roundTripsInDescription() {
+        CommandProcessor cp = new CommandProcessor(new Workspaces(tmp, Long.MAX_VALUE));
+        String added = cp.handle("todo buy milk\\; eggs; todo second");
+        assertTrue(added.contains("buy milk; eggs"));
+        assertTrue(added.contains("second"));
+        cp.flush();
+
+        String list = new CommandProcessor(new Workspaces(tmp, Long.MAX_VALUE)).handle("list");
+        assertTrue(list.contains("1. [T][ ] buy milk; eggs"));
+        assertTrue(list.contains("2. [T][ ] second"));
+    }
+
+    /**
+     * Verifies begin/rollback discards staged changes and begin/commit keeps them.
+     */
+    @Test
+    void handle_beginRollbackCommit() {
+        CommandProcessor cp = new CommandProcessor();
+        String before = cp.handle("list");
+
+        assertTrue(cp.handle("commit").contains("No transaction is open."));
+        assertTrue(cp.handle("begin").contains("Transaction started."));
+        assertTrue(cp.handle("begin").contains("already open"));
+        cp.handle("todo staged task");
+        assertTrue(cp.handle("undo").contains("Finish the open transaction first."));
+        assertTrue(cp.handle("rollback").contains("Rolled back 1 change(s)."));
+        assertTrue(cp.handle("list").equals(before));
+
+        cp.handle("begin");
+        cp.handle("todo kept task");
+        assertTrue(cp.handle("commit").contains("Committed 1 change(s)."));
+        assertFalse(cp.isInTransaction());
+        assertTrue(cp.handle("list").contains("kept task"));
+        assertTrue(cp.handle("todo a; begin").contains("cannot be part of a ; sequence"));
+    }
+
+    /**
+     * Verifies range marking and predicate deletes, and that each undoes as one step.
+     */
+    @Test
+    void handle_rangeMarkAndPredicateDelete() {
+        CommandProcessor cp = new CommandProcessor();
+        int base = extractCount(cp.handle("todo bulk one"));
+        cp.handle("todo bulk two");
+        cp.handle("deadline bulk old /by 1999-01-01");
+
+        String marked = cp.handle("mark " + base + "-" + (base + 1));
+        assertTrue(marked.contains("Marked as done: 2 task(s), of which 2 changed."));
+        assertTrue(cp.handle("list").contains("[T][X] bulk two"));
+        assertTrue(cp.handle("undo").contains("Undid mark of 2 task(s)"));
+        assertTrue(cp.handle("list").contains("[T][ ] bulk two"));
+
+        assertTrue(cp.handle("delete before 2000-01-01").contains("bulk old"));
+        assertFalse(cp.handle("list").contains("bulk old"));
+        assertTrue(cp.handle("mark " + base + "-999999").contains("do not exist"));
+    }
+
+    /**
+     * Verifies list pages number their lines from the page start and reject pages past the end.
+     */
+    @Test
+    void handle_listPage_showsOnlyThatPage() {
+        CommandProcessor cp = new CommandProcessor();
+        cp.handle("todo page filler a");
+        int count = extractCount(cp.handle("todo page filler b"));
+
+        String last = cp.handle("list page " + count + " size 1");
+        assertTrue(last.contains(count + ". [T][ ] page filler b"));
+        assertFalse(last.contains("page filler a"));
+        assertTrue(last.contains("Page " + count + " of " + count));
+        assertTrue(cp.handle("list page " + (count - 1) + " size 1").contains("Next: list page " + count + " size 1"));
+        assertTrue(cp.handle("list page " + (count + 1) + " size 1").contains("does not exist"));
+        assertTrue(cp.handle("list size").contains("Use: list [page N] [size M]"));
+    }
+
+    /**
+     * Verifies {@code use} switches to a separate list, keeps each list intact, and is refused mid-transaction.
+     */
+    @Test
+    void handle_useWorkspace_switchesLists() {
+        CommandProcessor cp = new CommandProcessor(new Workspaces(tmp, Long.MAX_VALUE));
+        cp.handle("todo default chore");
+
+        assertTrue(cp.handle("use Work").contains("Now using workspace \"work\""));
+        assertFalse(cp.handle("list").contains("default chore"));
+        cp.handle("todo work chore");
+        assertTrue(cp.handle("use").contains("In memory: default, work"));
+
+        cp.handle("use default");
+        String list = cp.handle("list");
+        assertTrue(list.contains("default chore"));
+        assertFalse(list.contains("work chore"));
+
+        assertTrue(cp.handle("todo x; use work").contains("Finish the open transaction first."));
+        assertTrue(cp.handle("use ../x").contains("Workspace names"));
+    }
 }
@@ -0,0 +1,85 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Loopback round-trip tests for {@link CommandServer}.
+ */
+class CommandServerTest {
+
+    /**
+     * Verifies a client can add, find and delete a task, and end its session with bye.
+     */
+    @Test
+    void serve_addFindBye_overLoopback() throws IOException {
+        String marker = "served" + System.nanoTime();
+        try (CommandServer server = new CommandServer(new CommandProcessor())) {
+            int port = server.start(0);
+            try (Socket client = new Socket(InetAddress.getLoopbackAddress(), port);
+                    PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8);
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8))) {
+                out.println("todo " + marker);
+                String added = readReply(in);
+                assertTrue(added.contains("Added:"));
+                out.println("find " + marker);
+                assertTrue(readReply(in).contains(marker));
+                String position = added.replaceAll("(?s).*Now you have (\\d+) task.*", "$1");
+                out.println("delete " + position);
+                assertTrue(readReply(in).contains("Removed:"));
+                out.println("bye");
+                assertTrue(readReply(in).contains("Goodbye"));
+            }
+        }
+    }
+
+    /**
+     * Verifies explicit transactions are refused, since they would span clients.
+     */
+    @Test
+    void respond_begin_isRefused() {
+        CommandServer server = new CommandServer(new CommandProcessor());
+        assertTrue(server.respond("begin").contains("not available over the server"));
+    }
+
+    /**
+     * Verifies undo and redo are refused, since one client could otherwise revert another client's change.
+     */
+    @Test
+    void respond_undoRedo_isRefused() {
+        CommandServer server = new CommandServer(new CommandProcessor());
+        assertTrue(server.respond("undo").contains("history is shared by every client"));
+        assertTrue(server.respond("redo").contains("history is shared by every client"));
+    }
+
+    /**
+     * Verifies switching workspaces is refused, since every client shares the active one, while a bare use
+     * still reports it.
+     */
+    @Test
+    void respond_useName_isRefused() {
+        CommandServer server = new CommandServer(new CommandProcessor());
+        assertTrue(server.respond("use other").contains("not available over the server"));
+        assertTrue(server.respond("use").contains("Using workspace \"default\""));
+    }
+
+    /** Reads lines up to the empty line that ends every reply. */
+    private static String readReply(BufferedReader in) throws IOException {
+        StringBuilder reply = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.isEmpty()) {
+            reply.append(line).append('\n');
+        }
+        return reply.toString();
+    }
+}
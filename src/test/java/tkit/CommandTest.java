@@ -1,6 +1,8 @@
 package tkit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -29,4 +31,17 @@ class CommandTest {
         assertEquals("todo", Command.TODO.keyword());
         assertEquals("", Command.UNKNOWN.keyword());
     }
+
+    /**
+     * Ensures only querying commands are treated as read-only.
+     */
+    @Test
+    void isReadOnly_queriesOnly() {
+        assertTrue(Command.LIST.isReadOnly());
+        assertTrue(Command.FIND.isReadOnly());
+        assertTrue(Command.ON.isReadOnly());
+        assertFalse(Command.TODO.isReadOnly());
+        assertFalse(Command.DELETE.isReadOnly());
+        assertFalse(Command.UNDO.isReadOnly());
+    }
 }
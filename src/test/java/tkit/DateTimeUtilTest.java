@@ -1,8 +1,10 @@
 package tkit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
@@ -76,4 +78,56 @@ class DateTimeUtilTest {
         String stored = DateTimeUtil.toStorage(ldt);
         assertEquals(ldt, DateTimeUtil.parseStorageOrInput(stored));
     }
+
+    /**
+     * Verifies the fixed-layout storage parser accepts both ISO forms and rejects anything else with null.
+     */
+    @Test
+    void tryParseStorage_fixedLayout() {
+        assertEquals(LocalDateTime.of(2019, 12, 2, 18, 0), DateTimeUtil.tryParseStorage("2019-12-02T18:00", 0, 16));
+        assertEquals(LocalDateTime.of(2019, 12, 2, 18, 0, 30),
+                DateTimeUtil.tryParseStorage("2019-12-02T18:00:30", 0, 19));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0),
+                DateTimeUtil.tryParseStorage("| 2024-02-29T00:00 |", 2, 18));
+        assertNull(DateTimeUtil.tryParseStorage("2023-02-29T00:00", 0, 16));
+        assertNull(DateTimeUtil.tryParseStorage("2019-13-02T18:00", 0, 16));
+        assertNull(DateTimeUtil.tryParseStorage("2019-12-02T24:00", 0, 16));
+        assertNull(DateTimeUtil.tryParseStorage("2019-12-02 1800", 0, 15));
+        assertNull(DateTimeUtil.tryParseStorage("2019-1a-02T18:00", 0, 16));
+    }
+
+    /**
+     * Verifies legacy input-format dates in storage still go through the formatter fallback.
+     */
+    @Test
+    void tryParseStorageOrInput_fallsBackForLegacyLines() {
+        assertEquals(LocalDateTime.of(2019, 12, 2, 18, 0), DateTimeUtil.tryParseStorageOrInput("2/12/2019 1800"));
+        assertEquals(LocalDateTime.of(2019, 12, 2, 0, 0), DateTimeUtil.tryParseStorageOrInput(" 2019-12-02 "));
+        assertEquals(LocalDateTime.of(2019, 12, 2, 18, 0), DateTimeUtil.tryParseStorageOrInput("2019-12-02T18:00"));
+    }
+
+    /**
+     * Verifies date ranges split on the whitespace that separates two parseable dates.
+     */
+    @Test
+    void tryParseDateRange_findsSplitBetweenDates() {
+        LocalDate first = LocalDate.of(2019, 12, 1);
+        LocalDate last = LocalDate.of(2019, 12, 31);
+        assertArrayEquals(new LocalDate[] {first, last}, DateTimeUtil.tryParseDateRange("2019-12-01 2019-12-31"));
+        assertArrayEquals(new LocalDate[] {first, last},
+                DateTimeUtil.tryParseDateRange(" 1/12/2019 0900   2019-12-31 1800 "));
+        assertNull(DateTimeUtil.tryParseDateRange("2019-12-01"));
+        assertNull(DateTimeUtil.tryParseDateRange("2019-12-01 tomorrow"));
+    }
+
+    /**
+     * Verifies repeated formatting returns the cached string, and that dates share midnight entries.
+     */
+    @Test
+    void pretty_repeatedDate_returnsCachedString() {
+        LocalDateTime at = LocalDateTime.of(2021, 3, 4, 5, 6);
+        assertSame(DateTimeUtil.pretty(at), DateTimeUtil.pretty(at));
+        assertEquals("Mar 4 2021 05:06", DateTimeUtil.pretty(at));
+        assertSame(DateTimeUtil.pretty(LocalDate.of(2021, 3, 4)), DateTimeUtil.pretty(at.toLocalDate().atStartOfDay()));
+    }
 }
@@ -1,6 +1,7 @@
 package tkit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
@@ -25,4 +26,19 @@ class DeadlineTest {
         assertTrue(s.contains("return book"));
         assertTrue(s.contains("Dec 2 2019 18:00"));
     }
+
+    /**
+     * Ensures the rendered form is reused until the status changes in place.
+     */
+    @Test
+    void toString_cachedUntilStatusChanges() {
+        Deadline d = new Deadline("return book", LocalDateTime.of(2019, 12, 2, 0, 0));
+        String first = d.toString();
+        assertSame(first, d.toString());
+        assertEquals("[D][ ] return book (by: Dec 2 2019)", first);
+
+        d.markAsDone();
+        assertEquals("[D][X] return book (by: Dec 2 2019)", d.toString());
+        assertEquals("[D][ ] return book (by: Dec 2 2019)", d.withStatus(Status.NOT_DONE).toString());
+    }
 }
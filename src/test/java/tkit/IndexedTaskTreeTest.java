@@ -0,0 +1,101 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IndexedTaskTree}.
+ */
+class IndexedTaskTreeTest {
+
+    private static List<Task> todos(int n) {
+        List<Task> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Todo("t" + i));
+        }
+        return out;
+    }
+
+    /**
+     * Verifies random inserts, removes and bulk removes behave exactly like an {@link ArrayList}.
+     */
+    @Test
+    void randomEdits_matchArrayList() {
+        Random rnd = new Random(7);
+        List<Task> expected = todos(500);
+        IndexedTaskTree tree = new IndexedTaskTree(expected);
+        expected = new ArrayList<>(expected);
+        for (int step = 0; step < 3000; step++) {
+            int op = rnd.nextInt(4);
+            if (op == 0 || expected.isEmpty()) {
+                Task t = new Todo("n" + step);
+                int idx = rnd.nextInt(expected.size() + 1);
+                tree.insert(idx, t);
+                expected.add(idx, t);
+            } else if (op == 1) {
+                int idx = rnd.nextInt(expected.size());
+                assertEquals(expected.remove(idx), tree.remove(idx));
+            } else if (op == 2) {
+                TreeSet<Integer> picks = new TreeSet<>();
+                for (int i = rnd.nextInt(Math.min(20, expected.size())); i >= 0; i--) {
+                    picks.add(rnd.nextInt(expected.size()));
+                }
+                int[] ascending = picks.stream().mapToInt(Integer::intValue).toArray();
+                List<Task> removedExpected = new ArrayList<>();
+                for (int idx : ascending) {
+                    removedExpected.add(expected.get(idx));
+                }
+                for (int i = ascending.length - 1; i >= 0; i--) {
+                    expected.remove(ascending[i]);
+                }
+                assertEquals(removedExpected, tree.removeAll(ascending));
+            } else {
+                Task t = new Todo("a" + step);
+                tree.add(t);
+                expected.add(t);
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(expected, tree.view());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), tree.get(i));
+        }
+    }
+
+    /**
+     * Verifies out-of-range positions are rejected like {@link List#get(int)}.
+     */
+    @Test
+    void get_outOfRange_throws() {
+        IndexedTaskTree tree = new IndexedTaskTree(todos(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.view().get(-1));
+    }
+
+    /**
+     * Verifies deleting most of a large list in one call keeps the survivors in order.
+     */
+    @Test
+    void removeAll_largeBulk_keepsSurvivorsInOrder() {
+        List<Task> all = todos(100_000);
+        IndexedTaskTree tree = new IndexedTaskTree(all);
+        int[] evens = new int[50_000];
+        for (int i = 0; i < evens.length; i++) {
+            evens[i] = 2 * i;
+        }
+        assertEquals(50_000, tree.removeAll(evens).size());
+        assertEquals(50_000, tree.size());
+        int i = 1;
+        for (Task t : tree.view()) {
+            assertEquals(all.get(i), t);
+            i += 2;
+        }
+    }
+}
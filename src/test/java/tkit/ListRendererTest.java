@@ -0,0 +1,69 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ListRenderer}.
+ */
+class ListRendererTest {
+
+    /**
+     * Verifies page bounds, including a short last page.
+     */
+    @Test
+    void parse_pageAndSize_inEitherOrder() throws TkitException {
+        ListRenderer.Page page = ListRenderer.parse("size 40 page 3", 95);
+        assertEquals(80, page.from);
+        assertEquals(95, page.to);
+        assertEquals(3, page.count);
+        assertTrue(ListRenderer.parse("", 95).isWhole());
+        assertThrows(TkitException.class, () -> ListRenderer.parse("page 4 size 40", 95));
+        assertThrows(TkitException.class, () -> ListRenderer.parse("page", 95));
+    }
+
+    /**
+     * Verifies a write spanning several chunks numbers every line once, in order.
+     */
+    @Test
+    void write_acrossChunks_numbersFromPageStart() throws IOException, TkitException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < ListRenderer.CHUNK_LINES * 3; i++) {
+            tasks.add(new Todo("t" + i));
+        }
+        List<CharSequence> pieces = new ArrayList<>();
+        StringBuilder all = new StringBuilder();
+        Appendable sink = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                pieces.add(csq.toString());
+                all.append(csq);
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+
+        ListRenderer.write(tasks, ListRenderer.page(2, ListRenderer.CHUNK_LINES + 1, tasks.size()), sink);
+
+        String[] lines = all.toString().split("\n");
+        assertEquals(ListRenderer.CHUNK_LINES + 1, lines.length);
+        assertEquals((ListRenderer.CHUNK_LINES + 2) + ". [T][ ] t" + (ListRenderer.CHUNK_LINES + 1), lines[0]);
+        assertEquals(2, pieces.size());
+    }
+}
@@ -1,6 +1,9 @@
 package tkit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -38,4 +41,26 @@ class ParserTest {
         assertEquals(Command.UNKNOWN, sc.command);
         assertEquals("", sc.argOrEmpty());
     }
+
+    /**
+     * Verifies optional counts default when blank and reject non-positive or non-numeric input.
+     */
+    @Test
+    void parseCount_defaultsAndValidates() throws TkitException {
+        assertEquals(5, Parser.parseCount("  ", 5));
+        assertEquals(12, Parser.parseCount(" 12 ", 5));
+        assertThrows(TkitException.class, () -> Parser.parseCount("0", 5));
+        assertThrows(TkitException.class, () -> Parser.parseCount("soon", 5));
+    }
+
+    /**
+     * Verifies sequences split on unescaped semicolons only, drop blank steps and unescape the rest.
+     */
+    @Test
+    void splitSequence_honoursEscapedSemicolons() {
+        assertEquals(List.of("todo a", "mark 1"), Parser.splitSequence(" todo a ;; mark 1 ; "));
+        assertEquals(List.of("todo a; b", "list"), Parser.splitSequence("todo a\\; b; list"));
+        assertEquals(List.of("todo a\\b"), Parser.splitSequence("todo a\\b"));
+        assertEquals(List.of(), Parser.splitSequence(" ; "));
+    }
 }
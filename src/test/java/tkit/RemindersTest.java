@@ -0,0 +1,75 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Reminders}.
+ */
+class RemindersTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    /**
+     * Verifies a deadline is reminded of once, a lead time ahead, and an event at its start minus the lead.
+     */
+    @Test
+    void advanceTo_remindsLeadTimeAhead() {
+        List<String> out = new ArrayList<>();
+        Reminders reminders = new Reminders(30, NOW, out::add);
+        TaskList list = new TaskList();
+        reminders.reset(list.subscribe(reminders));
+        list.add(new Deadline("file report", NOW.plusHours(2)));
+        list.add(new Event("standup", NOW.plusHours(3), NOW.plusHours(4)));
+        list.add(new Todo("no time"));
+        assertEquals(2, reminders.pending());
+
+        reminders.advanceTo(NOW.plusMinutes(89));
+        assertTrue(out.isEmpty());
+        reminders.advanceTo(NOW.plusMinutes(90));
+        assertEquals(1, out.size());
+        assertTrue(out.get(0).contains("\"file report\" is due"));
+        assertTrue(out.get(0).contains("(in 30 min)"));
+
+        reminders.advanceTo(NOW.plusMinutes(200));
+        assertEquals(2, out.size());
+        assertTrue(out.get(1).contains("\"standup\" starts"));
+        assertEquals(0, reminders.pending());
+    }
+
+    /**
+     * Verifies marking done and deleting cancel reminders, unmarking and undoing a delete restore them, and
+     * times already past are ignored.
+     */
+    @Test
+    void listChanges_keepRemindersInSync() {
+        List<String> out = new ArrayList<>();
+        Reminders reminders = new Reminders(0, NOW, out::add);
+        TaskList list = new TaskList();
+        list.add(new Deadline("already late", NOW.minusDays(1)));
+        list.add(new Deadline("a", NOW.plusDays(1)));
+        list.add(new Deadline("b", NOW.plusDays(2)));
+        reminders.reset(list.subscribe(reminders));
+        assertEquals(2, reminders.pending());
+
+        list.mark(1);
+        assertEquals(1, reminders.pending());
+        list.unmark(1);
+        assertEquals(2, reminders.pending());
+
+        Task removed = list.removeAt(2);
+        assertEquals(1, reminders.pending());
+        list.insert(2, removed);
+        list.setStatusAll(new int[] {1, 2}, Status.DONE);
+        assertEquals(0, reminders.pending());
+
+        reminders.advanceTo(NOW.plusDays(3));
+        assertTrue(out.isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Selection}.
+ */
+class SelectionTest {
+
+    private static List<Task> sample() {
+        Task done = new Todo("done todo");
+        done.markAsDone();
+        return List.of(
+                new Todo("open todo"),
+                done,
+                new Deadline("old deadline", LocalDateTime.of(2023, 12, 31, 23, 59)),
+                new Event("old event", LocalDateTime.of(2023, 6, 1, 9, 0), LocalDateTime.of(2023, 6, 2, 9, 0)),
+                new Deadline("new deadline", LocalDateTime.of(2024, 1, 1, 0, 0)));
+    }
+
+    /**
+     * Verifies numbers and ranges merge into unique ascending positions, whichever way a range is written.
+     */
+    @Test
+    void resolve_numbersAndRanges_mergeAscending() throws TkitException {
+        assertArrayEquals(new int[] {0, 1, 2, 4}, Selection.resolve("5, 1-3 2", sample()));
+        assertArrayEquals(new int[] {1, 2, 3}, Selection.resolve("4 - 2", sample()));
+    }
+
+    /**
+     * Verifies the status and date predicates.
+     */
+    @Test
+    void resolve_predicates_matchByStatusAndDate() throws TkitException {
+        assertArrayEquals(new int[] {1}, Selection.resolve("done", sample()));
+        assertArrayEquals(new int[] {0, 2, 3, 4}, Selection.resolve("undone", sample()));
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4}, Selection.resolve("all", sample()));
+        assertArrayEquals(new int[] {2, 3}, Selection.resolve("before 2024-01-01", sample()));
+        assertArrayEquals(new int[0], Selection.resolve("before 1/1/2000", sample()));
+    }
+
+    /**
+     * Verifies out-of-range and malformed selections are rejected with the offending tokens.
+     */
+    @Test
+    void resolve_badInput_throws() {
+        TkitException range = assertThrows(TkitException.class, () -> Selection.resolve("1, 4-9", sample()));
+        assertTrue(range.getMessage().contains("do not exist: 4-9"));
+        TkitException single = assertThrows(TkitException.class, () -> Selection.resolve("0", sample()));
+        assertTrue(single.getMessage().contains("Invalid task number: 0"));
+        assertThrows(TkitException.class, () -> Selection.resolve("1-x", sample()));
+        assertThrows(TkitException.class, () -> Selection.resolve("before someday", sample()));
+    }
+}
@@ -1,7 +1,9 @@
 package tkit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -9,6 +11,7 @@ import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -51,6 +54,7 @@ class StorageTest {
                 LocalDateTime.of(2019, 12, 2, 16, 0));
 
         s.save(List.of(t1, d1, e1));
+        s.flush();
         assertTrue(Files.exists(data));
 
         List<Task> loaded = s.load();
@@ -81,4 +85,253 @@ class StorageTest {
         assertTrue(loaded.get(0) instanceof Todo);
         assertTrue(loaded.get(1) instanceof Event);
     }
+
+    @Test
+    void recordedMutations_replayFromJournal() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Storage s = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD);
+        s.save(List.of(new Todo("a"), new Todo("b")));
+
+        List<Task> live = new ArrayList<>(s.load());
+        Todo c = new Todo("c");
+        live.add(c);
+        s.recordAdd(c, live);
+        live.get(0).markAsDone();
+        s.recordMark(0, live);
+        live.remove(1);
+        s.recordDelete(List.of(1), live);
+        s.flush();
+
+        assertTrue(Files.exists(tmp.resolve("Tkit.txt.journal")), "Mutations should go to the journal");
+        assertFalse(Files.readString(data).contains("c"), "Snapshot should not be rewritten per mutation");
+
+        List<Task> loaded = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD).load();
+        assertEquals(2, loaded.size());
+        assertEquals("[T][X] a", loaded.get(0).toString());
+        assertEquals("[T][ ] c", loaded.get(1).toString());
+    }
+
+    @Test
+    void failedSnapshot_isRetriedInsteadOfJournalingOnTheOldBase() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Storage s = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD);
+        s.save(List.of(new Todo("a")));
+        s.flush();
+        List<Task> live = new ArrayList<>(s.load());
+
+        // a directory where the temp snapshot goes makes the next snapshot write fail
+        Path blocker = tmp.resolve("Tkit.txt.tmp");
+        Files.createDirectories(blocker);
+        live.add(new Todo("b"));
+        s.save(live);
+        s.flush();
+        Files.delete(blocker);
+
+        Todo c = new Todo("c");
+        live.add(c);
+        s.recordAdd(c, live);
+        live.get(1).markAsDone();
+        s.recordMark(1, live);
+        s.flush();
+
+        List<Task> loaded = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD).load();
+        assertEquals(3, loaded.size());
+        assertEquals("[T][X] b", loaded.get(1).toString());
+        assertEquals("[T][ ] c", loaded.get(2).toString());
+    }
+
+    /**
+     * Verifies a snapshot large enough to be read in parallel can be saved over straight after loading,
+     * i.e. the load leaves nothing holding the file open.
+     */
+    @Test
+    void largeSnapshot_canBeReplacedAfterLoading() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        StringBuilder sb = new StringBuilder("# Tkit save\n");
+        int count = 0;
+        while (sb.length() < Storage.PARALLEL_LOAD_THRESHOLD + 1024) {
+            sb.append("T | 0 | task number ").append(count++).append(" padded to a realistic length\n");
+        }
+        Files.writeString(data, sb.toString());
+        Storage s = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD);
+
+        List<Task> loaded = new ArrayList<>(s.load());
+        assertEquals(count, loaded.size());
+        loaded.add(new Todo("after the big load"));
+        s.save(loaded);
+        s.flush();
+
+        List<Task> reloaded = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD).load();
+        assertEquals(count + 1, reloaded.size());
+        assertEquals("[T][ ] after the big load", reloaded.get(count).toString());
+    }
+
+    @Test
+    void journalPastThreshold_isCompactedIntoSnapshot() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Storage s = new Storage(data, 64);
+        List<Task> live = new ArrayList<>(s.load());
+        for (int i = 0; i < 20; i++) {
+            Todo t = new Todo("task " + i);
+            live.add(t);
+            s.recordAdd(t, live);
+        }
+        s.flush();
+
+        assertTrue(Files.readString(data).contains("task "), "Compaction should produce a snapshot");
+
+        List<Task> loaded = new Storage(data, 64).load();
+        assertEquals(20, loaded.size());
+        assertEquals("[T][ ] task 19", loaded.get(19).toString());
+    }
+
+    @Test
+    void load_ignoresStaleJournal() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Files.writeString(data, String.join("\n", "# gen 5", "T | 0 | a"));
+        Files.writeString(tmp.resolve("Tkit.txt.journal"), String.join("\n", "# base 4", "A T | 0 | b"));
+
+        List<Task> loaded = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD).load();
+        assertEquals(1, loaded.size());
+    }
+
+    @Test
+    void commitDurability_writesBeforeReturning() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Storage s = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD, Durability.COMMIT);
+        List<Task> live = new ArrayList<>(s.load());
+        Todo t = new Todo("durable");
+        live.add(t);
+        s.recordAdd(t, live);
+
+        assertTrue(Files.readString(tmp.resolve("Tkit.txt.journal")).contains("durable"));
+    }
+
+    @Test
+    void convert_textToBinaryAndBack_preservesTasks() throws Exception {
+        Path text = tmp.resolve("Tkit.txt");
+        Storage s = new Storage(text, Storage.DEFAULT_COMPACT_THRESHOLD);
+        List<Task> live = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Deadline d = new Deadline("return book " + i, LocalDateTime.of(2019, 12, 2, 18, 0).plusHours(i));
+            live.add(d);
+        }
+        s.save(live);
+        s.flush();
+        Todo extra = new Todo("journalled | todo");
+        live.add(extra);
+        s.recordAdd(extra, live);
+        s.flush();
+
+        Path binary = tmp.resolve("Tkit.bin");
+        Storage.convert(text, binary, SnapshotFormat.BINARY);
+        assertTrue(Files.size(binary) * 2 < Files.size(text), "Binary snapshot should be much smaller");
+
+        Path back = tmp.resolve("Back.txt");
+        Storage.convert(binary, back, SnapshotFormat.TEXT);
+
+        List<Task> fromBinary = new Storage(binary, Storage.DEFAULT_COMPACT_THRESHOLD).load();
+        List<Task> fromText = new Storage(back, Storage.DEFAULT_COMPACT_THRESHOLD).load();
+        assertEquals(201, fromBinary.size());
+        assertEquals(201, fromText.size());
+        for (int i = 0; i < live.size(); i++) {
+            assertEquals(live.get(i).toString(), fromBinary.get(i).toString());
+            assertEquals(live.get(i).toString(), fromText.get(i).toString());
+        }
+    }
+
+    @Test
+    void binaryStorage_replaysJournalOnTopOfBinarySnapshot() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Storage s = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD, Durability.NONE, SnapshotFormat.BINARY);
+        List<Task> live = new ArrayList<>(List.of(new Todo("a")));
+        s.save(live);
+        live.get(0).markAsDone();
+        s.recordMark(0, live);
+        s.flush();
+
+        List<Task> loaded = new Storage(data, Storage.DEFAULT_COMPACT_THRESHOLD).load();
+        assertEquals(1, loaded.size());
+        assertEquals("[T][X] a", loaded.get(0).toString());
+    }
+
+    @Test
+    void decodeLine_roundTripsEscapedDescriptionsByteForByte() {
+        Storage s = new Storage(tmp.resolve("Tkit.txt"), 0);
+        List<String> descriptions = List.of("a|b", "a\\b", "ends with \\", "\\|", "|\\|\\\\|", "x || y",
+                "ünï|cödé");
+        for (String d : descriptions) {
+            Task decoded = s.decodeLine(s.encodeTask(new Todo(d)));
+            assertNotNull(decoded, d);
+            assertEquals(d, decoded.description);
+        }
+        Task deadline = s.decodeLine(s.encodeTask(new Deadline("a\\|b", LocalDateTime.of(2019, 12, 2, 18, 0))));
+        assertEquals("a\\|b", deadline.description);
+        assertEquals(LocalDateTime.of(2019, 12, 2, 18, 0), ((Deadline) deadline).getDueDate());
+    }
+
+    @Test
+    void decodeLine_followsDocumentedEscapes() {
+        Storage s = new Storage(tmp.resolve("Tkit.txt"), 0);
+        assertEquals("a|b", s.decodeLine("T | 0 | a\\|b").description);
+        assertEquals("a\\", s.decodeLine("T | 0 | a\\\\ | extra").description);
+        assertEquals("a\\|b", s.decodeLine("T | 0 | a\\\\\\|b").description);
+        assertNull(s.decodeLine("T | 2 | bad done flag"));
+        assertNull(s.decodeLine("Q | 0 | bad type"));
+        assertNull(s.decodeLine("T | 0 |   "));
+    }
+
+    /**
+     * Verifies the single-pass decoder gives what the original split-then-unescape decoder gave, on a fixed table
+     * of lines covering spacing, pipe escapes, legacy dates and each way a line can be corrupted.
+     */
+    @Test
+    void decodeLine_matchesLegacyDecoderOnPipeEscapes() {
+        Storage s = new Storage(tmp.resolve("Tkit.txt"), 0);
+        String[][] cases = {
+            {"T | 1 | read book", "[T][X] read book"},
+            {"T|0|tight", "[T][ ] tight"},
+            {"  T  |  0  |  padded  ", "[T][ ] padded"},
+            {"T | 0 | a \\| b | extra | fields | ignored", "[T][ ] a | b"},
+            {"D | 0 | return book | 2019-12-02T18:00", "[D][ ] return book (by: Dec 2 2019 18:00)"},
+            {"D | 1 | legacy input | 2/12/2019 1800", "[D][X] legacy input (by: Dec 2 2019 18:00)"},
+            {"D | 0 | missing-date", null},
+            {"D | 0 | bad date | tomorrow", null},
+            {"E | 0 | meeting | 2019-12-02T14:00 | 2019-12-02T16:00",
+                "[E][ ] meeting (fromDate: Dec 2 2019 14:00 toDate: Dec 2 2019 16:00)"},
+            {"E | 0 | meeting | 2019-12-02T14:00", null},
+            {"E | 1 | date only | 2019-12-02 | 2019-12-03",
+                "[E][X] date only (fromDate: Dec 2 2019 toDate: Dec 3 2019)"},
+            {"X | 0 | unknown", null},
+            {"T | 0", null},
+        };
+        for (String[] c : cases) {
+            assertEquals(String.valueOf(c[1]), String.valueOf(s.decodeLine(c[0])), c[0]);
+        }
+    }
+
+    /**
+     * Verifies deferred records write nothing until a checkpoint saves the whole list once.
+     */
+    @Test
+    void deferred_recordsWaitForCheckpoint() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Storage s = new Storage(data, 1 << 20);
+        s.load();
+        s.setDeferred(true);
+        List<Task> live = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            live.add(new Todo("t" + i));
+            s.recordAdd(live.get(i), live);
+        }
+        s.flush();
+        assertFalse(Files.exists(data));
+        assertFalse(Files.exists(tmp.resolve("Tkit.txt.journal")));
+
+        assertTrue(s.checkpoint(live));
+        assertFalse(s.checkpoint(live));
+        s.setDeferred(false);
+        s.flush();
+        assertEquals(3, new Storage(data, 1 << 20).load().size());
+    }
 }
@@ -0,0 +1,139 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TaskEventPublisher}.
+ */
+class TaskEventPublisherTest {
+
+    /** Subscriber that records events and requests only when told to. */
+    private static final class Recorder implements Flow.Subscriber<TaskEvent> {
+        final List<TaskEvent> events = new ArrayList<>();
+        private Flow.Subscription subscription;
+
+        @Override
+        public synchronized void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            notifyAll();
+        }
+
+        /** Requests more events once the asynchronous {@code onSubscribe} has arrived. */
+        synchronized void request(long n) throws InterruptedException {
+            while (subscription == null) {
+                wait(50);
+            }
+            subscription.request(n);
+        }
+
+        @Override
+        public synchronized void onNext(TaskEvent event) {
+            events.add(event);
+            notifyAll();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        synchronized List<TaskEvent> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                wait(50);
+            }
+            return new ArrayList<>(events);
+        }
+
+        synchronized TaskEvent awaitReset(int size) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < deadline) {
+                TaskEvent last = events.isEmpty() ? null : events.get(events.size() - 1);
+                if (last instanceof TaskEvent.Reset && ((TaskEvent.Reset) last).tasks.size() == size) {
+                    return last;
+                }
+                wait(50);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Verifies each kind of change arrives as its typed event, after an initial reset.
+     */
+    @Test
+    void changes_arriveAsTypedEventsInOrder() throws InterruptedException {
+        TaskList list = new TaskList();
+        try (TaskEventPublisher publisher = new TaskEventPublisher(list::view)) {
+            list.subscribe(publisher);
+            Recorder recorder = new Recorder();
+            publisher.subscribe(recorder);
+            recorder.request(Long.MAX_VALUE);
+
+            list.add(new Todo("a"));
+            list.add(new Todo("b"));
+            list.add(new Todo("c"));
+            list.mark(0);
+            list.removeManyDescending(List.of(0));
+            list.removeManyDescending(List.of(1, 0));
+
+            List<TaskEvent> events = recorder.await(7);
+            assertEquals(7, events.size());
+            assertTrue(events.get(0) instanceof TaskEvent.Reset);
+            assertTrue(events.get(1) instanceof TaskEvent.Added);
+            assertEquals(2, ((TaskEvent.Added) events.get(3)).index);
+            assertTrue(events.get(4) instanceof TaskEvent.StatusChanged);
+            assertEquals(0, ((TaskEvent.Removed) events.get(5)).index);
+            assertEquals(2, ((TaskEvent.BulkRemoved) events.get(6)).positions().length);
+        }
+    }
+
+    /**
+     * Verifies a subscriber that stops requesting only holds a bounded buffer, and that once it catches up
+     * it receives a reset of the whole list without waiting for another change.
+     */
+    @Test
+    void slowSubscriber_dropsPastBuffer_thenResyncs() throws InterruptedException {
+        TaskList list = new TaskList();
+        try (TaskEventPublisher publisher = new TaskEventPublisher(list::view, 2)) {
+            list.subscribe(publisher);
+            Recorder recorder = new Recorder();
+            publisher.subscribe(recorder);
+            for (int i = 0; i < 10; i++) {
+                list.add(new Todo("t" + i));
+            }
+            recorder.request(Long.MAX_VALUE);
+
+            assertTrue(recorder.awaitReset(10) != null);
+            assertTrue(recorder.await(0).size() < 10);
+        }
+    }
+
+    /**
+     * Verifies a subscriber that never requests does not hold up the thread making changes.
+     */
+    @Test
+    void stalledSubscriber_doesNotBlockChanges() {
+        TaskList list = new TaskList();
+        try (TaskEventPublisher publisher = new TaskEventPublisher(list::view, 2)) {
+            list.subscribe(publisher);
+            publisher.subscribe(new Recorder());
+            long start = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                list.add(new Todo("t" + i));
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+}
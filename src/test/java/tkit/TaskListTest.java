@@ -1,6 +1,10 @@
 package tkit;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -35,4 +39,215 @@ class TaskListTest {
         Assertions.assertEquals(t, removed);
         Assertions.assertTrue(list.isEmpty());
     }
+
+    @Test
+    void find_indexedKeyword_returnsMatchesInListOrder() {
+        TaskList list = new TaskList();
+        list.add(new Todo("Write REPORT draft"));
+        list.add(new Todo("unrelated"));
+        list.add(new Deadline("report due", LocalDateTime.of(2019, 12, 2, 18, 0)));
+        list.add(new Todo("rep ort split"));
+        list.add(new Todo("final reportage"));
+        list.removeAt(1);
+
+        List<Task> hits = list.find("  Report ");
+        Assertions.assertEquals(3, hits.size());
+        Assertions.assertTrue(hits.get(0).toString().contains("REPORT draft"));
+        Assertions.assertTrue(hits.get(1).toString().contains("report due"));
+        Assertions.assertTrue(hits.get(2).toString().contains("reportage"));
+
+        list.removeManyDescending(List.of(3, 0));
+        Assertions.assertEquals(1, list.find("report").size());
+        Assertions.assertTrue(list.find("nothing like it").isEmpty());
+    }
+
+    @Test
+    void onDate_returnsDeadlinesAndCoveringEventsInListOrder() {
+        TaskList list = new TaskList();
+        Event conf = new Event("conf", LocalDateTime.of(2019, 12, 1, 9, 0), LocalDateTime.of(2019, 12, 3, 17, 0));
+        Deadline late = new Deadline("late", LocalDateTime.of(2019, 12, 2, 23, 59));
+        Deadline early = new Deadline("early", LocalDateTime.of(2019, 12, 2, 0, 0));
+        Event other = new Event("other", LocalDateTime.of(2019, 12, 3, 9, 0), LocalDateTime.of(2019, 12, 4, 9, 0));
+        list.add(conf);
+        list.add(new Todo("no date"));
+        list.add(late);
+        list.add(other);
+        list.add(early);
+        list.add(new Deadline("next day", LocalDateTime.of(2019, 12, 3, 0, 0)));
+
+        Assertions.assertEquals(List.of(conf, late, early), list.onDate(LocalDate.of(2019, 12, 2)));
+        list.removeAt(0);
+        Assertions.assertEquals(List.of(late, early), list.onDate(LocalDate.of(2019, 12, 2)));
+        Assertions.assertEquals(List.of(other), list.onDate(LocalDate.of(2019, 12, 4)));
+    }
+
+    @Test
+    void onDate_matchesLinearScanAfterRandomEdits() {
+        Random rnd = new Random(42);
+        TaskList list = new TaskList();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int step = 0; step < 2000; step++) {
+            if (list.size() > 0 && rnd.nextInt(3) == 0) {
+                list.removeAt(rnd.nextInt(list.size()));
+                continue;
+            }
+            LocalDateTime from = base.plusMinutes(rnd.nextInt(60 * 24 * 60));
+            if (rnd.nextBoolean()) {
+                list.add(new Deadline("d" + step, from));
+            } else {
+                list.add(new Event("e" + step, from, from.plusMinutes(rnd.nextInt(60 * 24 * 10))));
+            }
+        }
+        for (int day = 0; day < 75; day++) {
+            LocalDate date = base.toLocalDate().plusDays(day);
+            List<Task> expected = new ArrayList<>();
+            for (Task t : list.view()) {
+                boolean isHit = t instanceof Deadline
+                        ? ((Deadline) t).getDueDate().toLocalDate().equals(date)
+                        : DateTimeUtil.dateIntersects(date, ((Event) t).getFromDate(), ((Event) t).getToDate());
+                if (isHit) {
+                    expected.add(t);
+                }
+            }
+            Assertions.assertEquals(expected, list.onDate(date));
+        }
+    }
+
+    @Test
+    void upcomingOverdueBetween_followDueOrderAndStatus() {
+        TaskList list = new TaskList();
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+        Deadline past = new Deadline("past", now.minusDays(2));
+        Deadline justPast = new Deadline("just past", now.minusMinutes(1));
+        Deadline dueNow = new Deadline("due now", now);
+        Deadline later = new Deadline("later", now.plusDays(3));
+        Deadline sameTime = new Deadline("same time", now.plusDays(3));
+        Deadline soon = new Deadline("soon", now.plusHours(1));
+        list.add(later);
+        list.add(past);
+        list.add(new Event("event", now.plusHours(2), now.plusHours(3)));
+        list.add(dueNow);
+        list.add(sameTime);
+        list.add(justPast);
+        list.add(soon);
+
+        Assertions.assertEquals(List.of(dueNow, soon, later), list.upcoming(now, 3));
+        Assertions.assertEquals(List.of(past, justPast), list.overdue(now));
+
+        list.mark(0);
+        list.mark(1);
+        Assertions.assertEquals(List.of(dueNow, soon, sameTime), list.upcoming(now, 5));
+        Assertions.assertEquals(List.of(justPast), list.overdue(now));
+        list.unmark(1);
+        Assertions.assertEquals(List.of(list.get(1), justPast), list.overdue(now));
+
+        Assertions.assertEquals(List.of(justPast, dueNow, soon, list.get(0), sameTime),
+                list.between(LocalDate.of(2024, 6, 4), LocalDate.of(2024, 6, 1)));
+        list.removeAt(4);
+        Assertions.assertEquals(List.of(dueNow, soon), list.upcoming(now, 5));
+        Assertions.assertTrue(list.between(LocalDate.of(2024, 6, 5), LocalDate.of(2024, 7, 1)).isEmpty());
+    }
+
+    @Test
+    void view_isSnapshotUnaffectedByLaterEdits() {
+        TaskList list = new TaskList();
+        Todo first = new Todo("first");
+        list.add(first);
+        list.add(new Todo("second"));
+        List<Task> before = list.view();
+
+        list.mark(0);
+        list.removeAt(1);
+        list.add(new Todo("third"));
+
+        Assertions.assertEquals(2, before.size());
+        Assertions.assertSame(first, before.get(0));
+        Assertions.assertEquals("[T][ ] first", before.get(0).toString());
+        Assertions.assertEquals("[T][ ] second", before.get(1).toString());
+        Assertions.assertEquals("[T][X] first", list.get(0).toString());
+        Assertions.assertEquals(List.of("first", "third"), list.find("ir").stream()
+                .map(t -> t.description).collect(java.util.stream.Collectors.toList()));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> before.remove(0));
+    }
+
+    @Test
+    void insert_repeatedlyAtSameSpot_keepsIndexesInListOrder() {
+        TaskList list = new TaskList();
+        list.add(new Todo("head"));
+        list.add(new Deadline("tail", LocalDateTime.of(2024, 1, 1, 9, 0)));
+        List<Task> expected = new ArrayList<>(list.view());
+        for (int i = 0; i < 64; i++) {
+            Deadline d = new Deadline("mid " + i, LocalDateTime.of(2024, 1, 1, 9, 0));
+            list.insert(1, d);
+            expected.add(1, d);
+        }
+        Todo front = new Todo("front");
+        list.insert(0, front);
+        expected.add(0, front);
+
+        Assertions.assertEquals(expected, list.view());
+        Assertions.assertEquals(expected.subList(2, expected.size()), list.onDate(LocalDate.of(2024, 1, 1)));
+        Assertions.assertEquals(expected.subList(2, expected.size() - 1), list.find("mid"));
+    }
+
+    @Test
+    void setStatusAll_changesOnlyDifferingTasksAndKeepsIndexes() {
+        TaskList list = new TaskList();
+        for (int i = 0; i < 6; i++) {
+            list.add(new Deadline("due " + i, LocalDateTime.of(2020, 1, 1 + i, 9, 0)));
+        }
+        list.mark(2);
+        List<Task> before = list.view();
+
+        int[] changed = list.setStatusAll(new int[] {1, 2, 3, 5}, Status.DONE);
+
+        Assertions.assertEquals(List.of(1, 3, 5), java.util.Arrays.stream(changed).boxed()
+                .collect(java.util.stream.Collectors.toList()));
+        Assertions.assertEquals(List.of(list.get(0), list.get(4)), list.overdue(LocalDateTime.of(2021, 1, 1, 0, 0)));
+        Assertions.assertEquals(List.of(list.get(3)), list.find("due 3"));
+        Assertions.assertEquals("[D][ ] due 1 (by: Jan 2 2020 09:00)", before.get(1).toString());
+        Assertions.assertSame(before.get(2), list.get(2));
+    }
+
+    @Test
+    void subscribe_replayingEvents_mirrorsTheList() {
+        TaskList list = new TaskList(List.of(new Todo("seed a"), new Todo("seed b")));
+        List<Task> mirror = new ArrayList<>();
+        mirror.addAll(list.subscribe(new TaskList.ChangeListener() {
+            @Override
+            public void added(int idx, Task t) {
+                mirror.add(idx, t);
+            }
+
+            @Override
+            public void removed(int[] ascending, Task[] removed) {
+                for (int i = ascending.length - 1; i >= 0; i--) {
+                    mirror.remove(ascending[i]);
+                }
+            }
+
+            @Override
+            public void replaced(int[] ascending, Task[] previous, Task[] replacements) {
+                for (int i = 0; i < ascending.length; i++) {
+                    mirror.set(ascending[i], replacements[i]);
+                }
+            }
+
+            @Override
+            public void reset(List<Task> snapshot) {
+                mirror.clear();
+                mirror.addAll(snapshot);
+            }
+        }));
+
+        list.add(new Todo("appended"));
+        list.insert(1, new Deadline("inserted", LocalDateTime.of(2024, 2, 2, 0, 0)));
+        list.mark(0);
+        list.setStatusAll(new int[] {1, 2, 3}, Status.DONE);
+        list.removeManyDescending(List.of(3, 1));
+        list.removeAt(0);
+
+        Assertions.assertEquals(list.view(), mirror);
+        Assertions.assertEquals(1, mirror.size());
+    }
 }
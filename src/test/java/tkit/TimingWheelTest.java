@@ -0,0 +1,66 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TimingWheel}.
+ */
+class TimingWheelTest {
+
+    /**
+     * Verifies timers on every level fire exactly at their tick, in order, across cascades.
+     */
+    @Test
+    void advance_firesEachTimerAtItsTick() {
+        long start = 1_000_003;
+        TimingWheel<Long> wheel = new TimingWheel<>(start);
+        Random random = new Random(7);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long expiry = start + 1 + random.nextInt(1 << 20);
+            wheel.schedule(expiry, expiry);
+            expected.add(expiry);
+        }
+        expected.sort(null);
+
+        List<Long> fired = new ArrayList<>();
+        for (long tick = start + 1; tick <= start + (1 << 20); tick++) {
+            int before = fired.size();
+            wheel.advance(tick, fired);
+            for (int i = before; i < fired.size(); i++) {
+                assertEquals(tick, (long) fired.get(i));
+            }
+        }
+        assertEquals(expected, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Verifies cancelled timers never fire and that past expiries fire on the next advance.
+     */
+    @Test
+    void cancelAndOverdue() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        TimingWheel.Timer<String> kept = wheel.schedule(5000, "kept");
+        TimingWheel.Timer<String> dropped = wheel.schedule(5000, "dropped");
+        wheel.schedule(50, "late");
+        assertTrue(wheel.cancel(dropped));
+        assertFalse(wheel.cancel(dropped));
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(100, fired);
+        assertEquals(List.of("late"), fired);
+
+        wheel.advance(6000, fired);
+        assertEquals(List.of("late", "kept"), fired);
+        assertFalse(kept.isPending());
+    }
+}
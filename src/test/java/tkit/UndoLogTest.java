@@ -0,0 +1,130 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link UndoLog}.
+ */
+class UndoLogTest {
+
+    @TempDir
+    Path tmp;
+
+    private static List<String> render(List<Task> tasks) {
+        List<String> out = new ArrayList<>();
+        for (Task t : tasks) {
+            out.add(t.toString());
+        }
+        return out;
+    }
+
+    private static void add(TaskList tasks, Storage storage, UndoLog log, String description) {
+        Task t = new Todo(description);
+        tasks.add(t);
+        storage.recordAdd(t, tasks.view());
+        log.record(UndoLog.added(tasks.size() - 1, t));
+    }
+
+    /**
+     * Verifies a multi-index delete is undone and redone in place, and that the journal replays to the same list.
+     */
+    @Test
+    void undoRedo_bulkDelete_restoresPositionsAndPersists() throws TkitException {
+        Storage storage = new Storage(tmp.resolve("Tkit.txt"), 1 << 20);
+        TaskList tasks = new TaskList();
+        UndoLog log = new UndoLog();
+        for (int i = 0; i < 6; i++) {
+            add(tasks, storage, log, "t" + i);
+        }
+        Status before = tasks.get(2).status;
+        tasks.mark(2);
+        storage.recordMark(2, tasks.view());
+        log.record(UndoLog.statusChanged(2, before, Status.DONE));
+        List<String> full = render(tasks.view());
+
+        List<Integer> indices = List.of(4, 2, 0);
+        log.record(UndoLog.deleted(indices, tasks.removeManyDescending(indices)));
+        storage.recordDelete(indices, tasks.view());
+        List<String> afterDelete = render(tasks.view());
+
+        assertEquals("delete of 3 task(s)", log.undo(tasks, storage).describe());
+        assertEquals(full, render(tasks.view()));
+        assertEquals("mark 3", log.undo(tasks, storage).describe());
+        assertEquals("[T][ ] t2", tasks.get(2).toString());
+
+        log.redo(tasks, storage);
+        log.redo(tasks, storage);
+        assertEquals(afterDelete, render(tasks.view()));
+        assertFalse(log.canRedo());
+
+        log.undo(tasks, storage);
+        assertEquals(full, render(tasks.view()));
+        storage.flush();
+        assertEquals(full, render(new Storage(tmp.resolve("Tkit.txt"), 1 << 20).load()));
+    }
+
+    /**
+     * Verifies undoing a delete past the bulk threshold is saved as one snapshot rather than one record per task.
+     */
+    @Test
+    void undo_largeDelete_savesSnapshotInsteadOfJournaling() throws Exception {
+        Path data = tmp.resolve("Tkit.txt");
+        Storage storage = new Storage(data, 1 << 20);
+        TaskList tasks = new TaskList();
+        UndoLog log = new UndoLog();
+        for (int i = 0; i < 200; i++) {
+            add(tasks, storage, log, "t" + i);
+        }
+        List<String> full = render(tasks.view());
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 199; i >= 50; i--) {
+            indices.add(i);
+        }
+        log.record(UndoLog.deleted(indices, tasks.removeManyDescending(indices)));
+        storage.recordDelete(indices, tasks.view());
+
+        log.undo(tasks, storage);
+        storage.flush();
+
+        assertFalse(Files.exists(tmp.resolve("Tkit.txt.journal")), "Bulk undo should not journal each insert");
+        assertEquals(full, render(new Storage(data, 1 << 20).load()));
+    }
+
+    /**
+     * Verifies the ring keeps only the newest edits and a new edit clears the redo history.
+     */
+    @Test
+    void record_boundedCapacity_dropsOldestAndClearsRedo() throws TkitException {
+        Storage storage = new Storage(tmp.resolve("Tkit.txt"), 1 << 20);
+        TaskList tasks = new TaskList();
+        UndoLog log = new UndoLog(3);
+        for (int i = 0; i < 5; i++) {
+            add(tasks, storage, log, "t" + i);
+        }
+        log.undo(tasks, storage);
+        log.undo(tasks, storage);
+        log.undo(tasks, storage);
+        assertFalse(log.canUndo());
+        assertEquals(2, tasks.size());
+        assertThrows(TkitException.class, () -> log.undo(tasks, storage));
+
+        log.redo(tasks, storage);
+        add(tasks, storage, log, "fresh");
+        assertFalse(log.canRedo());
+        assertThrows(TkitException.class, () -> log.redo(tasks, storage));
+        assertEquals(List.of("[T][ ] t0", "[T][ ] t1", "[T][ ] t2", "[T][ ] fresh"), render(tasks.view()));
+        assertTrue(log.canUndo());
+        storage.flush();
+    }
+}
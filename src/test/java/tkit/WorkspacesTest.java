@@ -0,0 +1,78 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link Workspaces}.
+ */
+class WorkspacesTest {
+
+    @TempDir
+    Path tmp;
+
+    private static void add(Workspaces.Workspace ws, String description) {
+        Task t = new Todo(description);
+        ws.tasks.add(t);
+        ws.storage.recordAdd(t, ws.tasks.view());
+    }
+
+    /**
+     * Verifies names are normalised to lower case and that anything usable as a path escape is rejected.
+     */
+    @Test
+    void validate_acceptsSimpleNamesOnly() throws TkitException {
+        assertEquals("work", Workspaces.validate(" Work "));
+        assertThrows(TkitException.class, () -> Workspaces.validate("../etc"));
+        assertThrows(TkitException.class, () -> Workspaces.validate(""));
+    }
+
+    /**
+     * Verifies each workspace gets its own file and that reopening a resident one returns the same instance.
+     */
+    @Test
+    void open_separateFiles_andReusesResident() {
+        Workspaces workspaces = new Workspaces(tmp, Long.MAX_VALUE);
+        Workspaces.Workspace home = workspaces.open("home");
+        add(home, "water plants");
+        Workspaces.Workspace work = workspaces.open("work");
+        assertEquals(0, work.tasks.size());
+        assertSame(home, workspaces.open("home"));
+        workspaces.flushAll();
+        assertTrue(Files.exists(tmp.resolve("workspaces").resolve("home.txt.journal")));
+        assertEquals(List.of("work", "home"), workspaces.residentNames());
+    }
+
+    /**
+     * Verifies that over budget the least recently used idle workspace is flushed and dropped, and that
+     * reopening it reloads its tasks from disk.
+     */
+    @Test
+    void open_overBudget_evictsLeastRecentlyUsedAfterFlushing() {
+        Workspaces workspaces = new Workspaces(tmp, 3 * Workspaces.TASK_OVERHEAD_BYTES);
+        Workspaces.Workspace first = workspaces.open("first");
+        add(first, "a");
+        add(first, "b");
+        Workspaces.Workspace second = workspaces.open("second");
+        add(second, "c");
+        add(second, "d");
+
+        workspaces.open("third");
+        assertEquals(List.of("second", "third"), workspaces.residentNames());
+
+        Workspaces.Workspace reloaded = workspaces.open("first");
+        assertNotSame(first, reloaded);
+        assertEquals(2, reloaded.tasks.size());
+        assertEquals("[T][ ] b", reloaded.tasks.get(1).toString());
+    }
+}
@@ -0,0 +1,100 @@
+package tkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link WriteBehindSaver}.
+ */
+class WriteBehindSaverTest {
+
+    /** Records what reached the sink, blocking the first call until released. */
+    private static final class RecordingSink implements WriteBehindSaver.Sink {
+        final List<String> calls = new ArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void writeSnapshot(List<Task> tasks, boolean isSynced) {
+            calls.add("snapshot " + tasks.size());
+            hold();
+        }
+
+        @Override
+        public void appendRecords(List<String> records, boolean isSynced) {
+            calls.add("records " + records);
+            hold();
+        }
+
+        private void hold() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Verifies that work queued while the writer is busy is merged: a later snapshot drops
+     * everything before it, and the records after it are written as one group.
+     */
+    @Test
+    void queuedWork_isMergedIntoOneSnapshotAndOneGroup() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        WriteBehindSaver saver = new WriteBehindSaver(sink, Durability.BATCHED);
+
+        saver.submitRecord("A first");
+        sink.started.await();
+        saver.submitRecord("M 0");
+        saver.submitSnapshot(List.of(new Todo("a")));
+        saver.submitSnapshot(List.of(new Todo("a"), new Todo("b")));
+        saver.submitRecord("M 1");
+        saver.submitRecord("U 1");
+        sink.release.countDown();
+        saver.flush();
+
+        assertEquals(List.of("records [A first]", "snapshot 2", "records [M 1, U 1]"), sink.calls);
+    }
+
+    /**
+     * Verifies that an {@link Error} thrown by the sink neither hangs {@code flush()} nor stops later writes.
+     */
+    @Test
+    void sinkError_doesNotHangFlushOrKillTheWriter() throws Exception {
+        List<String> calls = new ArrayList<>();
+        WriteBehindSaver saver = new WriteBehindSaver(new WriteBehindSaver.Sink() {
+            @Override
+            public void writeSnapshot(List<Task> tasks, boolean isSynced) {
+                calls.add("snapshot " + tasks.size());
+                if (tasks.size() == 1) {
+                    throw new AssertionError("simulated sink failure");
+                }
+            }
+
+            @Override
+            public void appendRecords(List<String> records, boolean isSynced) {
+                calls.add("records " + records);
+            }
+        }, Durability.BATCHED);
+
+        Thread flusher = new Thread(() -> {
+            saver.submitSnapshot(List.of(new Todo("a")));
+            saver.flush();
+            saver.submitSnapshot(List.of(new Todo("a"), new Todo("b")));
+            saver.flush();
+        });
+        flusher.start();
+        flusher.join(5000);
+
+        assertFalse(flusher.isAlive(), "flush() must return after the sink throws an Error");
+        assertEquals(List.of("snapshot 1", "snapshot 2"), calls);
+    }
+}